@@ -7,6 +7,7 @@ import uk.co.probablyfine.matchers.function.DescribableFunction;
 import uk.co.probablyfine.matchers.function.DescribablePredicate;
 
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
 import static uk.co.probablyfine.matchers.internal.DescriptionUtils.withPrefixedArticle;
@@ -19,7 +20,7 @@ public final class Java8Matchers {
      * @param booleanProperty the predicate reolving the {@code boolean} property from the object.
      */
     public static <I, O> Matcher<I> whereNot(DescribablePredicate<? super I> booleanProperty) {
-        return whereNot(booleanProperty.getResultDescription(), booleanProperty);
+        return describedWhere(booleanProperty::getArgumentDescription, booleanProperty::getResultDescription, booleanProperty::test, is(false));
     }
 
     /**
@@ -29,8 +30,7 @@ public final class Java8Matchers {
      * @param booleanProperty the predicate resolving the {@code boolean} property from the object.
      */
     public static <I, O> Matcher<I> whereNot(String propertyDescription, DescribablePredicate<? super I> booleanProperty) {
-        String entityDescription = booleanProperty.getArgumentDescription();
-        return where(entityDescription, propertyDescription, booleanProperty::test, is(false));
+        return describedWhere(booleanProperty::getArgumentDescription, () -> propertyDescription, booleanProperty::test, is(false));
     }
 
     /**
@@ -39,7 +39,7 @@ public final class Java8Matchers {
      * @param booleanProperty the predicate resolving the {@code boolean} property from the object.
      */
     public static <I, O> Matcher<I> where(DescribablePredicate<? super I> booleanProperty) {
-        return where(booleanProperty.getResultDescription(), booleanProperty);
+        return describedWhere(booleanProperty::getArgumentDescription, booleanProperty::getResultDescription, booleanProperty::test, is(true));
     }
 
     /**
@@ -49,8 +49,7 @@ public final class Java8Matchers {
      * @param booleanProperty the predicate resolving the {@code boolean} property from the object.
      */
     public static <I, O> Matcher<I> where(String propertyDescription, DescribablePredicate<? super I> booleanProperty) {
-        String entityDescription = booleanProperty.getArgumentDescription();
-        return where(entityDescription, propertyDescription, booleanProperty::test, is(true));
+        return describedWhere(booleanProperty::getArgumentDescription, () -> propertyDescription, booleanProperty::test, is(true));
     }
 
     /**
@@ -60,8 +59,7 @@ public final class Java8Matchers {
      * @param matcher the {@code Matcher} for the derived value.
      */
     public static <I, O> Matcher<I> where(DescribableFunction<? super I, O> property, Matcher<? super O> matcher) {
-        String propertyDescription = property.getResultDescription();
-        return where(propertyDescription, property, matcher);
+        return describedWhere(property::getArgumentDescription, property::getResultDescription, property, matcher);
     }
 
     /**
@@ -72,8 +70,7 @@ public final class Java8Matchers {
      * @param matcher the {@code Matcher} for the derived value.
      */
     public static <I, O> Matcher<I> where(String propertyDescription, DescribableFunction<? super I, O> property, Matcher<? super O> matcher) {
-        String entityDescription = property.getArgumentDescription();
-        return where(entityDescription, propertyDescription, property, matcher);
+        return describedWhere(property::getArgumentDescription, () -> propertyDescription, property, matcher);
     }
 
     /**
@@ -85,25 +82,93 @@ public final class Java8Matchers {
      * @param matcher the {@code Matcher} for the derived value.
      */
     public static <I, O> Matcher<I> where(String entityDescription, String propertyDescription, Function<? super I, O> property, Matcher<? super O> matcher) {
-        return new TypeSafeDiagnosingMatcher<I>() {
+        return describedWhere(() -> entityDescription, () -> propertyDescription, property, matcher);
+    }
 
-            @Override
-            public void describeTo(Description description) {
-                description.appendText(entityDescription).appendText(" with ").appendText(withPrefixedArticle(propertyDescription))
-                    .appendText(" which ").appendDescriptionOf(matcher);
+    /**
+     * Descriptions resolved from a {@link DescribableFunction} or {@link DescribablePredicate} require
+     * serializing the lambda reflectively, so they are resolved no sooner than they are described.
+     */
+    private static <I, O> Matcher<I> describedWhere(Supplier<String> entityDescription, Supplier<String> propertyDescription, Function<? super I, O> property, Matcher<? super O> matcher) {
+        return new PropertyMatcher<>(new Memoized(entityDescription), new Memoized(propertyDescription), property, matcher);
+    }
+
+    /**
+     * Hamcrest resolves the mismatch of a {@link TypeSafeDiagnosingMatcher} by matching again, so the property of
+     * the last object which did not match is retained, to be described rather than resolved a second time. It is
+     * released once described, or when a match passes, to not keep the object reachable for as long as the matcher.
+     */
+    private static final class PropertyMatcher<I, O> extends TypeSafeDiagnosingMatcher<I> {
+        private final Supplier<String> entityDescription;
+        private final Supplier<String> propertyDescription;
+        private final Function<? super I, O> property;
+        private final Matcher<? super O> matcher;
+        private volatile Mismatch<O> lastMismatch;
+
+        PropertyMatcher(Supplier<String> entityDescription, Supplier<String> propertyDescription, Function<? super I, O> property, Matcher<? super O> matcher) {
+            this.entityDescription = entityDescription;
+            this.propertyDescription = propertyDescription;
+            this.property = property;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText(entityDescription.get()).appendText(" with ").appendText(withPrefixedArticle(propertyDescription.get()))
+                .appendText(" which ").appendDescriptionOf(matcher);
+        }
+
+        @Override
+        protected boolean matchesSafely(I objectToMatch, Description mismatch) {
+            Mismatch<O> last = lastMismatch;
+            if (last != null && last.object == objectToMatch && !(mismatch instanceof Description.NullDescription)) {
+                lastMismatch = null;
+                describe(last.actual, mismatch);
+                return false;
             }
+            O actual = property.apply(objectToMatch);
+            boolean match = matcher.matches(actual);
+            if (match) {
+                lastMismatch = null;
+            } else {
+                lastMismatch = new Mismatch<>(objectToMatch, actual);
+                describe(actual, mismatch);
+            }
+            return match;
+        }
+
+        private void describe(O actual, Description mismatch) {
+            mismatch.appendText("had the ").appendText(propertyDescription.get()).appendText(" ").appendValue(actual);
+        }
+    }
+
+    private static final class Memoized implements Supplier<String> {
+        private final Supplier<String> description;
+        private volatile String resolved;
 
+        Memoized(Supplier<String> description) {
+            this.description = description;
+        }
 
-            @Override
-            protected boolean matchesSafely(I objectToMatch, Description mismatch) {
-                O actual = property.apply(objectToMatch);
-                boolean match = matcher.matches(actual);
-                if (!match) {
-                    mismatch.appendText("had the ").appendText(propertyDescription).appendText(" ").appendValue(actual);
-                }
-                return match;
+        @Override
+        public String get() {
+            String value = resolved;
+            if (value == null) {
+                value = description.get();
+                resolved = value;
             }
-        };
+            return value;
+        }
+    }
+
+    private static final class Mismatch<O> {
+        final Object object;
+        final O actual;
+
+        Mismatch(Object object, O actual) {
+            this.object = object;
+            this.actual = actual;
+        }
     }
 
 
@@ -4,16 +4,69 @@ import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
 
+import uk.co.probablyfine.matchers.function.DescribableFunction;
+import uk.co.probablyfine.matchers.function.DoubleBiPredicate;
+import uk.co.probablyfine.matchers.function.IntBiPredicate;
+import uk.co.probablyfine.matchers.function.LongBiPredicate;
+import uk.co.probablyfine.matchers.internal.CountMap;
+import uk.co.probablyfine.matchers.internal.DoubleBuffer;
+import uk.co.probablyfine.matchers.internal.DoubleRingBuffer;
+import uk.co.probablyfine.matchers.internal.ElementAutomaton;
+import uk.co.probablyfine.matchers.internal.FirstFailure;
+import uk.co.probablyfine.matchers.internal.IntBuffer;
+import uk.co.probablyfine.matchers.internal.IntRingBuffer;
+import uk.co.probablyfine.matchers.internal.LongBuffer;
+import uk.co.probablyfine.matchers.internal.LongCountMap;
+import uk.co.probablyfine.matchers.internal.LongFirstSeen;
+import uk.co.probablyfine.matchers.internal.LongRingBuffer;
+import uk.co.probablyfine.matchers.internal.PositionDeque;
+import uk.co.probablyfine.matchers.internal.QuantileSketch;
+import uk.co.probablyfine.matchers.internal.RingBuffer;
+
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
 import java.util.Objects;
 import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
 import java.util.stream.BaseStream;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static uk.co.probablyfine.matchers.internal.ThreadConfinedMatcher.threadConfined;
 
 public class StreamMatchers {
 
@@ -24,7 +77,7 @@ public class StreamMatchers {
      * @param <S> The type of the BaseStream
      */
     public static <T,S extends BaseStream<T, ? extends S>> Matcher<S> yieldsNothing() {
-        return new TypeSafeMatcher<S>() {
+        return threadConfined(() -> new TypeSafeMatcher<S>() {
 
             private Iterator<T> actualIterator;
 
@@ -48,7 +101,7 @@ public class StreamMatchers {
                     description.appendText(" and is then exhausted");
                 }
             }
-        };
+        });
     }
 
     /**
@@ -80,12 +133,28 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static <T,S extends BaseStream<T,? extends S>> Matcher<S> yieldsSameAs(S expected) {
-        return new BaseStreamMatcher<T,S>() {
+        return yieldsSameAs(expected, CapturePolicy.defaults());
+    }
+
+    /**
+     * A matcher for a finite Stream producing the same number of items as the expected Stream,
+     * and producing equal items as expected in the same order. When the Streams differ, the given
+     * policy determines how many of their items are captured to describe the difference. When both
+     * Streams know their exact sizes, and the sizes differ, no more than a prefix of each is produced.
+     *
+     * @param expected A BaseStream against which to compare
+     * @param capturePolicy How many items to capture around the first difference
+     * @param <T> The type of items produced by each BaseStream
+     * @param <S> The type of BaseStream
+     * @see #yieldsSameAs(BaseStream)
+     */
+    public static <T,S extends BaseStream<T,? extends S>> Matcher<S> yieldsSameAs(S expected, CapturePolicy capturePolicy) {
+        return threadConfined(() -> new BaseStreamMatcher<T,S>(capturePolicy) {
             @Override
             protected boolean matchesSafely(S actual) {
-                return remainingItemsEqual(expected.iterator(), actual.iterator());
+                return streamsEqual(expected, actual);
             }
-        };
+        });
     }
 
     /**
@@ -117,12 +186,27 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static <T> Matcher<Stream<T>> startsWith(Stream<T> expected, long limit) {
-        return new BaseStreamMatcher<T,Stream<T>>() {
+        return startsWith(expected, limit, CapturePolicy.defaults());
+    }
+
+    /**
+     * A matcher for potentially infinite Streams of objects where the first limit items from each must be
+     * equal. When they differ, the given policy determines how many of their items are captured to describe the
+     * difference.
+     *
+     * @param expected A Stream to check against
+     * @param limit Only check this number of items from actual Stream
+     * @param capturePolicy How many items to capture around the first difference
+     * @param <T> The type of items produced by each Stream
+     * @see #startsWith(Stream, long)
+     */
+    public static <T> Matcher<Stream<T>> startsWith(Stream<T> expected, long limit, CapturePolicy capturePolicy) {
+        return threadConfined(() -> new BaseStreamMatcher<T,Stream<T>>(capturePolicy) {
             @Override
             protected boolean matchesSafely(Stream<T> actual) {
                 return remainingItemsEqual(expected.limit(limit).iterator(), actual.limit(limit).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -137,12 +221,26 @@ public class StreamMatchers {
      * @see #startsWithLong
      */
     public static Matcher<DoubleStream> startsWith(DoubleStream expected, long limit) {
-        return new BaseStreamMatcher<Double,DoubleStream>() {
+        return startsWith(expected, limit, CapturePolicy.defaults());
+    }
+
+    /**
+     * A matcher for potentially infinite Streams of primitive doubles where the first limit items from each must be
+     * equal. When they differ, the given policy determines how many of their items are captured to describe the
+     * difference.
+     *
+     * @param expected A Stream to check against
+     * @param limit Only check this number of items from actual Stream
+     * @param capturePolicy How many items to capture around the first difference
+     * @see #startsWith(DoubleStream, long)
+     */
+    public static Matcher<DoubleStream> startsWith(DoubleStream expected, long limit, CapturePolicy capturePolicy) {
+        return threadConfined(() -> new BaseStreamMatcher<Double,DoubleStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(DoubleStream actual) {
                 return remainingItemsEqual(expected.limit(limit).iterator(), actual.limit(limit).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -157,12 +255,26 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static Matcher<IntStream> startsWith(IntStream expected, long limit) {
-        return new BaseStreamMatcher<Integer,IntStream>() {
+        return startsWith(expected, limit, CapturePolicy.defaults());
+    }
+
+    /**
+     * A matcher for potentially infinite Streams of primitive ints where the first limit items from each must be
+     * equal. When they differ, the given policy determines how many of their items are captured to describe the
+     * difference.
+     *
+     * @param expected A Stream to check against
+     * @param limit Only check this number of items from actual Stream
+     * @param capturePolicy How many items to capture around the first difference
+     * @see #startsWith(IntStream, long)
+     */
+    public static Matcher<IntStream> startsWith(IntStream expected, long limit, CapturePolicy capturePolicy) {
+        return threadConfined(() -> new BaseStreamMatcher<Integer,IntStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(IntStream actual) {
                 return remainingItemsEqual(expected.limit(limit).iterator(), actual.limit(limit).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -177,12 +289,26 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static Matcher<LongStream> startsWith(LongStream expected, long limit) {
-        return new BaseStreamMatcher<Long,LongStream>() {
+        return startsWith(expected, limit, CapturePolicy.defaults());
+    }
+
+    /**
+     * A matcher for potentially infinite Streams of primitive longs where the first limit items from each must be
+     * equal. When they differ, the given policy determines how many of their items are captured to describe the
+     * difference.
+     *
+     * @param expected A Stream to check against
+     * @param limit Only check this number of items from actual Stream
+     * @param capturePolicy How many items to capture around the first difference
+     * @see #startsWith(LongStream, long)
+     */
+    public static Matcher<LongStream> startsWith(LongStream expected, long limit, CapturePolicy capturePolicy) {
+        return threadConfined(() -> new BaseStreamMatcher<Long,LongStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(LongStream actual) {
                 return remainingItemsEqual(expected.limit(limit).iterator(), actual.limit(limit).iterator());
             }
-        };
+        });
     }
 
     private static void describeToStartsAllWith(Description description, long limit, Matcher<?> matcher) {
@@ -204,7 +330,7 @@ public class StreamMatchers {
      * @see #startsWithAllDouble
      */
     public static <T> Matcher<Stream<T>> startsWithAll(Matcher<T> matcher, long limit) {
-        return new StreamAllMatches<T>(matcher) {
+        return threadConfined(() -> new StreamAllMatches<T>(matcher) {
             @Override
             protected boolean matchesSafely(Stream<T> actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -214,7 +340,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAllWith(description, limit, matcher);
             }
-        };
+        });
 
     }
 
@@ -229,7 +355,7 @@ public class StreamMatchers {
      * @see #startsWithAllDouble
      */
     public static Matcher<LongStream> startsWithAllLong(Matcher<Long> matcher, long limit) {
-        return new LongStreamAllMatches(matcher) {
+        return threadConfined(() -> new LongStreamAllMatches(matcher) {
             @Override
             protected boolean matchesSafely(LongStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -239,7 +365,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAllWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -253,7 +379,7 @@ public class StreamMatchers {
      * @see #startsWithAllDouble
      */
     public static Matcher<IntStream> startsWithAllInt(Matcher<Integer> matcher, long limit) {
-        return new IntStreamAllMatches(matcher) {
+        return threadConfined(() -> new IntStreamAllMatches(matcher) {
             @Override
             protected boolean matchesSafely(IntStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -263,7 +389,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAllWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -277,7 +403,7 @@ public class StreamMatchers {
      * @see #startsWithAllLong
      */
     public static Matcher<DoubleStream> startsWithAllDouble(Matcher<Double> matcher, long limit) {
-        return new DoubleStreamAllMatches(matcher) {
+        return threadConfined(() -> new DoubleStreamAllMatches(matcher) {
             @Override
             protected boolean matchesSafely(DoubleStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -287,7 +413,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAllWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     private static void describeToStartsAnyWith(Description description, long limit, Matcher<?> matcher) {
@@ -310,7 +436,7 @@ public class StreamMatchers {
      * @see #startsWithAnyDouble
      */
     public static <T> Matcher<Stream<T>> startsWithAny(Matcher<T> matcher, long limit) {
-        return new StreamAnyMatches<T>(matcher) {
+        return threadConfined(() -> new StreamAnyMatches<T>(matcher) {
             @Override
             protected boolean matchesSafely(Stream<T> actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -320,7 +446,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAnyWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -335,7 +461,7 @@ public class StreamMatchers {
      * @see #startsWithAnyDouble
      */
     public static Matcher<LongStream> startsWithAnyLong(Matcher<Long> matcher, long limit) {
-        return new LongStreamAnyMatches(matcher) {
+        return threadConfined(() -> new LongStreamAnyMatches(matcher) {
             @Override
             protected boolean matchesSafely(LongStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -345,7 +471,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAnyWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -360,7 +486,7 @@ public class StreamMatchers {
      * @see #startsWithAnyLong
      */
     public static Matcher<DoubleStream> startsWithAnyDouble(Matcher<Double> matcher, long limit) {
-        return new DoubleStreamAnyMatches(matcher) {
+        return threadConfined(() -> new DoubleStreamAnyMatches(matcher) {
             @Override
             protected boolean matchesSafely(DoubleStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -370,7 +496,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAnyWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -385,7 +511,7 @@ public class StreamMatchers {
      * @see #startsWithAnyDouble
      */
     public static Matcher<IntStream> startsWithAnyInt(Matcher<Integer> matcher, long limit) {
-        return new IntStreamAnyMatches(matcher) {
+        return threadConfined(() -> new IntStreamAnyMatches(matcher) {
             @Override
             protected boolean matchesSafely(IntStream actual) {
                 return super.matchesSafely(actual.limit(limit));
@@ -395,7 +521,7 @@ public class StreamMatchers {
             public void describeTo(Description description) {
                 describeToStartsAnyWith(description, limit, matcher);
             }
-        };
+        });
     }
 
     /**
@@ -412,12 +538,27 @@ public class StreamMatchers {
      */
     @SafeVarargs
     public static <T, S extends BaseStream<T, ? extends S>> Matcher<S> yieldsExactly(Matcher<T>... expectedMatchers) {
-        return new BaseMatcherStreamMatcher<T,S>() {
+        return yieldsExactly(CapturePolicy.defaults(), expectedMatchers);
+    }
+
+    /**
+     * The BaseStream must produce exactly the given expected items in order, and no more. When it does not,
+     * the given policy determines how many items are captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expectedMatchers Matchers for the items that should be produced by the BaseStream
+     * @param <T> The type of items
+     * @param <S> The type of the BaseStream
+     * @see #yieldsExactly(Matcher...)
+     */
+    @SafeVarargs
+    public static <T, S extends BaseStream<T, ? extends S>> Matcher<S> yieldsExactly(CapturePolicy capturePolicy, Matcher<T>... expectedMatchers) {
+        return threadConfined(() -> new BaseMatcherStreamMatcher<T,S>(capturePolicy) {
             @Override
             protected boolean matchesSafely(S actual) {
-                return remainingItemsMatch(new ArrayIterator<>(expectedMatchers), actual.iterator());
+                return itemsMatch(expectedMatchers, actual);
             }
-        };
+        });
     }
 
     /**
@@ -450,12 +591,27 @@ public class StreamMatchers {
      */
     @SafeVarargs
     public static <T, S extends BaseStream<T, ? extends S>> Matcher<S> yieldsExactly(T... expected) {
-        return new BaseStreamMatcher<T,S>() {
+        return yieldsExactly(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * The BaseStream must produce exactly the given expected items in order, and no more. When it does not,
+     * the given policy determines how many items are captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The items that should be produced by the BaseStream
+     * @param <T> The type of items
+     * @param <S> The type of the BaseStream
+     * @see #yieldsExactly(Object...)
+     */
+    @SafeVarargs
+    public static <T, S extends BaseStream<T, ? extends S>> Matcher<S> yieldsExactly(CapturePolicy capturePolicy, T... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<T,S>(capturePolicy) {
             @Override
             protected boolean matchesSafely(S actual) {
-                return remainingItemsEqual(new ArrayIterator<>(expected), actual.iterator());
+                return itemsEqual(expected, actual);
             }
-        };
+        });
     }
 
     /**
@@ -474,6 +630,199 @@ public class StreamMatchers {
         return yieldsExactly(expected);
     }
 
+    /**
+     * The Stream of primitive ints must produce exactly the given expected items in order, and no more.
+     * The items are compared without boxing them.
+     *
+     * For infinite Streams see {@link #startsWithInt(int...)}
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactly(Object...)
+     * @see #yieldsExactlyLong(long...)
+     * @see #yieldsExactlyDouble(double...)
+     */
+    public static Matcher<IntStream> yieldsExactlyInt(int... expected) {
+        return yieldsExactlyInt(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * The Stream of primitive ints must produce exactly the given expected items in order, and no more. When it
+     * does not, the given policy determines how many items are captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactlyInt(int...)
+     */
+    public static Matcher<IntStream> yieldsExactlyInt(CapturePolicy capturePolicy, int... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Integer,IntStream>(capturePolicy) {
+            @Override
+            protected boolean matchesSafely(IntStream actual) {
+                return streamsEqual(Arrays.stream(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * The Stream of primitive longs must produce exactly the given expected items in order, and no more.
+     * The items are compared without boxing them.
+     *
+     * For infinite Streams see {@link #startsWithLong(long...)}
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactly(Object...)
+     * @see #yieldsExactlyInt(int...)
+     * @see #yieldsExactlyDouble(double...)
+     */
+    public static Matcher<LongStream> yieldsExactlyLong(long... expected) {
+        return yieldsExactlyLong(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * The Stream of primitive longs must produce exactly the given expected items in order, and no more. When it
+     * does not, the given policy determines how many items are captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactlyLong(long...)
+     */
+    public static Matcher<LongStream> yieldsExactlyLong(CapturePolicy capturePolicy, long... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Long,LongStream>(capturePolicy) {
+            @Override
+            protected boolean matchesSafely(LongStream actual) {
+                return streamsEqual(Arrays.stream(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * The Stream of primitive doubles must produce exactly the given expected items in order, and no more.
+     * The items are compared without boxing them. Doubles are compared like {@link Double#equals(Object)}.
+     *
+     * For infinite Streams see {@link #startsWithDouble(double...)}
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactly(Object...)
+     * @see #yieldsExactlyInt(int...)
+     * @see #yieldsExactlyLong(long...)
+     */
+    public static Matcher<DoubleStream> yieldsExactlyDouble(double... expected) {
+        return yieldsExactlyDouble(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * The Stream of primitive doubles must produce exactly the given expected items in order, and no more. When it
+     * does not, the given policy determines how many items are captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsExactlyDouble(double...)
+     */
+    public static Matcher<DoubleStream> yieldsExactlyDouble(CapturePolicy capturePolicy, double... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Double,DoubleStream>(capturePolicy) {
+            @Override
+            protected boolean matchesSafely(DoubleStream actual) {
+                return streamsEqual(Arrays.stream(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream producing the same items as the expected Stream, each equally many times,
+     * but in any order. Items are counted rather than matched against each other, so the matcher runs in
+     * linear time.
+     *
+     * @param expected A BaseStream against which to compare
+     * @param <T> The type of items produced by each BaseStream
+     * @param <S> The type of BaseStream
+     * @see #yieldsInAnyOrder(Object...)
+     * @see #yieldsInAnyOrderInt(int...)
+     * @see #yieldsInAnyOrderLong(long...)
+     * @see #yieldsInAnyOrderDouble(double...)
+     */
+    public static <T,S extends BaseStream<T,? extends S>> Matcher<S> yieldsInAnyOrder(S expected) {
+        return threadConfined(() -> new InAnyOrderMatcher<S>() {
+            @Override
+            InAnyOrder compare(S actual) {
+                return inAnyOrder(expected, actual);
+            }
+        });
+    }
+
+    /**
+     * The BaseStream must produce exactly the given expected items, each equally many times, but in any order.
+     *
+     * @param expected The items that should be produced by the BaseStream
+     * @param <T> The type of items
+     * @param <S> The type of the BaseStream
+     * @see #yieldsInAnyOrder(BaseStream)
+     * @see #yieldsInAnyOrderInt(int...)
+     * @see #yieldsInAnyOrderLong(long...)
+     * @see #yieldsInAnyOrderDouble(double...)
+     */
+    @SafeVarargs
+    public static <T,S extends BaseStream<T,? extends S>> Matcher<S> yieldsInAnyOrder(T... expected) {
+        return threadConfined(() -> new InAnyOrderMatcher<S>() {
+            @Override
+            InAnyOrder compare(S actual) {
+                return itemsInAnyOrder(new ArrayIterator<>(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * The Stream of primitive ints must produce exactly the given expected items, each equally many times,
+     * but in any order.
+     *
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsInAnyOrder(BaseStream)
+     * @see #yieldsInAnyOrder(Object...)
+     * @see #yieldsInAnyOrderLong(long...)
+     * @see #yieldsInAnyOrderDouble(double...)
+     */
+    public static Matcher<IntStream> yieldsInAnyOrderInt(int... expected) {
+        return threadConfined(() -> new InAnyOrderMatcher<IntStream>() {
+            @Override
+            InAnyOrder compare(IntStream actual) {
+                return intsInAnyOrder(new IntArrayIterator(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * The Stream of primitive longs must produce exactly the given expected items, each equally many times,
+     * but in any order.
+     *
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsInAnyOrder(BaseStream)
+     * @see #yieldsInAnyOrder(Object...)
+     * @see #yieldsInAnyOrderInt(int...)
+     * @see #yieldsInAnyOrderDouble(double...)
+     */
+    public static Matcher<LongStream> yieldsInAnyOrderLong(long... expected) {
+        return threadConfined(() -> new InAnyOrderMatcher<LongStream>() {
+            @Override
+            InAnyOrder compare(LongStream actual) {
+                return longsInAnyOrder(new LongArrayIterator(expected), actual);
+            }
+        });
+    }
+
+    /**
+     * The Stream of primitive doubles must produce exactly the given expected items, each equally many times,
+     * but in any order. Doubles are compared like {@link Double#equals(Object)}.
+     *
+     * @param expected The items that should be produced by the Stream
+     * @see #yieldsInAnyOrder(BaseStream)
+     * @see #yieldsInAnyOrder(Object...)
+     * @see #yieldsInAnyOrderInt(int...)
+     * @see #yieldsInAnyOrderLong(long...)
+     */
+    public static Matcher<DoubleStream> yieldsInAnyOrderDouble(double... expected) {
+        return threadConfined(() -> new InAnyOrderMatcher<DoubleStream>() {
+            @Override
+            InAnyOrder compare(DoubleStream actual) {
+                return doublesInAnyOrder(new DoubleArrayIterator(expected), actual);
+            }
+        });
+    }
+
     /**
      * A matcher for a finite Stream of objects, all of which must match the given Matcher.
      *
@@ -487,12 +836,12 @@ public class StreamMatchers {
      * @see #allMatchDouble
      */
     public static <T> Matcher<Stream<T>> allMatch(Matcher<T> matcher) {
-        return new StreamAllMatches<T>(matcher) {
+        return threadConfined(() -> new StreamAllMatches<T>(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("All to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -507,12 +856,12 @@ public class StreamMatchers {
      * @see #allMatchDouble
      */
     public static Matcher<IntStream> allMatchInt(Matcher<Integer> matcher) {
-        return new IntStreamAllMatches(matcher) {
+        return threadConfined(() -> new IntStreamAllMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("All to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -527,12 +876,12 @@ public class StreamMatchers {
      * @see #allMatchDouble
      */
     public static Matcher<LongStream> allMatchLong(Matcher<Long> matcher) {
-        return new LongStreamAllMatches(matcher) {
+        return threadConfined(() -> new LongStreamAllMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("All to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -547,12 +896,60 @@ public class StreamMatchers {
      * @see #allMatchLong
      */
     public static Matcher<DoubleStream> allMatchDouble(Matcher<Double> matcher) {
-        return new DoubleStreamAllMatches(matcher) {
+        return threadConfined(() -> new DoubleStreamAllMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("All to match ").appendValue(matcher);
             }
-        };
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, of which a random sample must match the given Matcher. Only the
+     * sampled items are matched, which makes checking large Streams with expensive Matchers affordable. The seed
+     * of the sample is included in the description, so a failure can be reproduced exactly.
+     *
+     * @param matcher A Matcher against which to compare the sampled items from the Stream
+     * @param sampling How to sample the items to match
+     * @param <T> The type of items produced by the Stream
+     * @see #allMatch(Matcher)
+     * @see Sampling
+     */
+    public static <T> Matcher<Stream<T>> allMatch(Matcher<T> matcher, Sampling sampling) {
+        return threadConfined(() -> new SampledAllMatches<T, Stream<T>>(matcher, sampling));
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive ints, of which a random sample must match the given Matcher.
+     *
+     * @param matcher A Matcher against which to compare the sampled items from the Stream
+     * @param sampling How to sample the items to match
+     * @see #allMatch(Matcher, Sampling)
+     */
+    public static Matcher<IntStream> allMatchInt(Matcher<Integer> matcher, Sampling sampling) {
+        return threadConfined(() -> new SampledAllMatches<Integer, IntStream>(matcher, sampling));
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive longs, of which a random sample must match the given Matcher.
+     *
+     * @param matcher A Matcher against which to compare the sampled items from the Stream
+     * @param sampling How to sample the items to match
+     * @see #allMatch(Matcher, Sampling)
+     */
+    public static Matcher<LongStream> allMatchLong(Matcher<Long> matcher, Sampling sampling) {
+        return threadConfined(() -> new SampledAllMatches<Long, LongStream>(matcher, sampling));
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, of which a random sample must match the given Matcher.
+     *
+     * @param matcher A Matcher against which to compare the sampled items from the Stream
+     * @param sampling How to sample the items to match
+     * @see #allMatch(Matcher, Sampling)
+     */
+    public static Matcher<DoubleStream> allMatchDouble(Matcher<Double> matcher, Sampling sampling) {
+        return threadConfined(() -> new SampledAllMatches<Double, DoubleStream>(matcher, sampling));
     }
 
     /**
@@ -568,12 +965,12 @@ public class StreamMatchers {
      * @see #anyMatchDouble
      */
     public static <T> Matcher<Stream<T>> anyMatch(Matcher<T> matcher) {
-        return new StreamAnyMatches<T>(matcher) {
+        return threadConfined(() -> new StreamAnyMatches<T>(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("Any to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -588,12 +985,12 @@ public class StreamMatchers {
      * @see #anyMatchDouble
      */
     public static Matcher<LongStream> anyMatchLong(Matcher<Long> matcher) {
-        return new LongStreamAnyMatches(matcher) {
+        return threadConfined(() -> new LongStreamAnyMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("Any to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -608,12 +1005,12 @@ public class StreamMatchers {
      * @see #anyMatchDouble
      */
     public static Matcher<DoubleStream> anyMatchDouble(Matcher<Double> matcher) {
-        return new DoubleStreamAnyMatches(matcher) {
+        return threadConfined(() -> new DoubleStreamAnyMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("Any to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -629,12 +1026,12 @@ public class StreamMatchers {
      */
 
     public static Matcher<IntStream> anyMatchInt(Matcher<Integer> matcher) {
-        return new IntStreamAnyMatches(matcher) {
+        return threadConfined(() -> new IntStreamAnyMatches(matcher) {
             @Override
             public void describeTo(Description description) {
                 description.appendText("Any to match ").appendValue(matcher);
             }
-        };
+        });
     }
 
     /**
@@ -652,12 +1049,27 @@ public class StreamMatchers {
 
     @SafeVarargs
     public static <T> Matcher<Stream<T>> startsWith(T... expected) {
-        return new BaseStreamMatcher<T,Stream<T>>() {
+        return startsWith(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * A matcher for a potentially infinite Stream of objects, matching if the first items produced by the Stream
+     * equal the expected items in order. When they do not, the given policy determines how many items are captured
+     * to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The expected items produced first by the Stream
+     * @param <T> The type of items
+     * @see #startsWith(Object...)
+     */
+    @SafeVarargs
+    public static <T> Matcher<Stream<T>> startsWith(CapturePolicy capturePolicy, T... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<T,Stream<T>>(capturePolicy) {
             @Override
             protected boolean matchesSafely(Stream<T> actual) {
                 return remainingItemsEqual(new ArrayIterator<>(expected), actual.limit(expected.length).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -672,12 +1084,25 @@ public class StreamMatchers {
      * @see #startsWithLong
      */
     public static Matcher<DoubleStream> startsWithDouble(double... expected) {
-        return new BaseStreamMatcher<Double,DoubleStream>() {
+        return startsWithDouble(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * A matcher for a potentially infinite Stream of primitive doubles, matching if the first items produced by the
+     * Stream equal the expected items in order. When they do not, the given policy determines how many items are
+     * captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The expected items produced first by the Stream
+     * @see #startsWithDouble(double...)
+     */
+    public static Matcher<DoubleStream> startsWithDouble(CapturePolicy capturePolicy, double... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Double,DoubleStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(DoubleStream actual) {
                 return remainingItemsEqual(new DoubleArrayIterator(expected), actual.limit(expected.length).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -692,12 +1117,25 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static Matcher<LongStream> startsWithLong(long... expected) {
-        return new BaseStreamMatcher<Long,LongStream>() {
+        return startsWithLong(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * A matcher for a potentially infinite Stream of primitive longs, matching if the first items produced by the
+     * Stream equal the expected items in order. When they do not, the given policy determines how many items are
+     * captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The expected items produced first by the Stream
+     * @see #startsWithLong(long...)
+     */
+    public static Matcher<LongStream> startsWithLong(CapturePolicy capturePolicy, long... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Long,LongStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(LongStream actual) {
                 return remainingItemsEqual(new LongArrayIterator(expected), actual.limit(expected.length).iterator());
             }
-        };
+        });
     }
 
     /**
@@ -712,258 +1150,3956 @@ public class StreamMatchers {
      * @see #startsWithDouble
      */
     public static Matcher<IntStream> startsWithInt(int... expected) {
-        return new BaseStreamMatcher<Integer,IntStream>() {
+        return startsWithInt(CapturePolicy.defaults(), expected);
+    }
+
+    /**
+     * A matcher for a potentially infinite Stream of primitive ints, matching if the first items produced by the
+     * Stream equal the expected items in order. When they do not, the given policy determines how many items are
+     * captured to describe the first difference.
+     *
+     * @param capturePolicy How many items to capture around the first difference
+     * @param expected The expected items produced first by the Stream
+     * @see #startsWithInt(int...)
+     */
+    public static Matcher<IntStream> startsWithInt(CapturePolicy capturePolicy, int... expected) {
+        return threadConfined(() -> new BaseStreamMatcher<Integer,IntStream>(capturePolicy) {
             @Override
             protected boolean matchesSafely(IntStream actual) {
                 return remainingItemsEqual(new IntArrayIterator(expected), actual.limit(expected.length).iterator());
             }
-        };
+        });
     }
 
-    private static abstract class BaseStreamMatcher<T,S extends BaseStream<T,?>> extends TypeSafeMatcher<S> {
-        final List<T> expectedAccumulator = new LinkedList<>();
-        final List<T> actualAccumulator = new LinkedList<>();
-
-        @Override
-        public void describeTo(Description description) {
-            describe(description, expectedAccumulator);
-        }
-
-        @Override
-        protected void describeMismatchSafely(S item, Description description) {
-            describe(description, actualAccumulator);
-        }
-
-        private void describe(Description description, List<T> values) {
-            description.appendText("Stream of ").appendValueList("[", ",", "]", values);
-        }
-
-        boolean remainingItemsEqual(Iterator<T> expectedIterator, Iterator<T> actualIterator) {
-            if (!expectedIterator.hasNext() && !actualIterator.hasNext()) {
-                return true;
-            }
-            if (expectedIterator.hasNext() && actualIterator.hasNext()) {
-                T nextExpected = expectedIterator.next();
-                expectedAccumulator.add(nextExpected);
-                T nextActual = actualIterator.next();
-                actualAccumulator.add(nextActual);
-                if (Objects.equals(nextExpected, nextActual)) {
-                    return remainingItemsEqual(expectedIterator, actualIterator);
-                }
+    /**
+     * A matcher for a finite Stream of Comparable objects, each of which must not be less than the preceding one.
+     * Only the preceding item is retained, and the Stream is consumed no further than the first item out of order.
+     *
+     * @param <T> The type of items produced by the Stream
+     * @see #isStrictlyIncreasing()
+     * @see #isSortedBy(Comparator)
+     * @see #isSortedInt()
+     * @see #isSortedLong()
+     * @see #isSortedDouble()
+     */
+    public static <T extends Comparable<? super T>> Matcher<Stream<T>> isSorted() {
+        return threadConfined(() -> new OrderMatcher<Stream<T>>("sorted in non-decreasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(Stream<T> actual) {
+                return outOfOrder(actual.iterator(), Comparator.<T>naturalOrder(), false);
             }
-            expectedIterator.forEachRemaining(expectedAccumulator::add);
-            actualIterator.forEachRemaining(actualAccumulator::add);
-            return false;
-        }
+        });
     }
 
-    private static abstract class BaseMatcherStreamMatcher<T,S extends BaseStream<T,?>> extends TypeSafeMatcher<S> {
-        final List<Matcher<T>> expectedAccumulator = new LinkedList<>();
-        final List<T> actualAccumulator = new LinkedList<>();
-
-        @Override
-        protected void describeMismatchSafely(S item, Description description) {
-            description.appendText("Stream of ").appendValueList("[", ",", "]", actualAccumulator);
-        }
-
-        @Override
-        public void describeTo(Description description) {
-            description.appendText("Stream of ").appendValueList("[", ",", "]", expectedAccumulator);
-        }
-
-        boolean remainingItemsMatch(Iterator<Matcher<T>> expectedIterator, Iterator<T> actualIterator) {
-            if (!expectedIterator.hasNext() && !actualIterator.hasNext()) {
-                return true;
+    /**
+     * A matcher for a finite Stream of Comparable objects, each of which must be greater than the preceding one.
+     *
+     * @param <T> The type of items produced by the Stream
+     * @see #isSorted()
+     * @see #isStrictlyIncreasingInt()
+     * @see #isStrictlyIncreasingLong()
+     * @see #isStrictlyIncreasingDouble()
+     */
+    public static <T extends Comparable<? super T>> Matcher<Stream<T>> isStrictlyIncreasing() {
+        return threadConfined(() -> new OrderMatcher<Stream<T>>("in strictly increasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(Stream<T> actual) {
+                return outOfOrder(actual.iterator(), Comparator.<T>naturalOrder(), true);
             }
-            if (expectedIterator.hasNext() && actualIterator.hasNext()) {
-                Matcher<T> nextExpected = expectedIterator.next();
-                expectedAccumulator.add(nextExpected);
-                T nextActual = actualIterator.next();
-                actualAccumulator.add(nextActual);
-                if (nextExpected.matches(nextActual)) {
-                    return remainingItemsMatch(expectedIterator, actualIterator);
-                }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, each of which must not be ordered before the preceding one
+     * by the given Comparator.
+     *
+     * @param comparator The Comparator defining the order of the items
+     * @param <T> The type of items produced by the Stream
+     * @see #isSorted()
+     */
+    public static <T> Matcher<Stream<T>> isSortedBy(Comparator<? super T> comparator) {
+        return threadConfined(() -> new OrderMatcher<Stream<T>>("sorted by the given Comparator") {
+            @Override
+            ConsecutivePair findOutOfOrder(Stream<T> actual) {
+                return outOfOrder(actual.iterator(), comparator, false);
             }
-            expectedIterator.forEachRemaining(expectedAccumulator::add);
-            actualIterator.forEachRemaining(actualAccumulator::add);
-            return false;
-        }
+        });
     }
 
-    private static void allMatchMismatch(Description mismatchDescription, long position, Object nonMatch) {
-        mismatchDescription.appendText("Item ").appendText(Long.toString(position)).appendText(" failed to match: ").appendValue(nonMatch);
+    /**
+     * A matcher for a finite Stream of primitive ints, each of which must not be less than the preceding one.
+     *
+     * @see #isSorted()
+     * @see #isStrictlyIncreasingInt()
+     */
+    public static Matcher<IntStream> isSortedInt() {
+        return threadConfined(() -> new OrderMatcher<IntStream>("sorted in non-decreasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(IntStream actual) {
+                return intsOutOfOrder(actual.iterator(), false);
+            }
+        });
     }
 
-    private static abstract class StreamAllMatches<T> extends TypeSafeMatcher<Stream<T>> {
-        private T nonMatching;
-        private long positionNonMatching = -1L;
-        private final Matcher<T> matcher;
+    /**
+     * A matcher for a finite Stream of primitive ints, each of which must be greater than the preceding one.
+     *
+     * @see #isStrictlyIncreasing()
+     * @see #isSortedInt()
+     */
+    public static Matcher<IntStream> isStrictlyIncreasingInt() {
+        return threadConfined(() -> new OrderMatcher<IntStream>("in strictly increasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(IntStream actual) {
+                return intsOutOfOrder(actual.iterator(), true);
+            }
+        });
+    }
 
-        StreamAllMatches(Matcher<T> matcher) {
+    /**
+     * A matcher for a finite Stream of primitive longs, each of which must not be less than the preceding one.
+     *
+     * @see #isSorted()
+     * @see #isStrictlyIncreasingLong()
+     */
+    public static Matcher<LongStream> isSortedLong() {
+        return threadConfined(() -> new OrderMatcher<LongStream>("sorted in non-decreasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(LongStream actual) {
+                return longsOutOfOrder(actual.iterator(), false);
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive longs, each of which must be greater than the preceding one.
+     *
+     * @see #isStrictlyIncreasing()
+     * @see #isSortedLong()
+     */
+    public static Matcher<LongStream> isStrictlyIncreasingLong() {
+        return threadConfined(() -> new OrderMatcher<LongStream>("in strictly increasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(LongStream actual) {
+                return longsOutOfOrder(actual.iterator(), true);
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, each of which must not be less than the preceding one.
+     * Doubles are ordered like {@link Double#compare(double, double)}, the same as {@link DoubleStream#sorted()}.
+     *
+     * @see #isSorted()
+     * @see #isStrictlyIncreasingDouble()
+     */
+    public static Matcher<DoubleStream> isSortedDouble() {
+        return threadConfined(() -> new OrderMatcher<DoubleStream>("sorted in non-decreasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(DoubleStream actual) {
+                return doublesOutOfOrder(actual.iterator(), false);
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, each of which must be greater than the preceding one.
+     * Doubles are ordered like {@link Double#compare(double, double)}.
+     *
+     * @see #isStrictlyIncreasing()
+     * @see #isSortedDouble()
+     */
+    public static Matcher<DoubleStream> isStrictlyIncreasingDouble() {
+        return threadConfined(() -> new OrderMatcher<DoubleStream>("in strictly increasing order") {
+            @Override
+            ConsecutivePair findOutOfOrder(DoubleStream actual) {
+                return doublesOutOfOrder(actual.iterator(), true);
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, no two of which may be equal. The Stream is consumed no further
+     * than the first item equal to an earlier one, and the positions of both are reported.
+     *
+     * @param <T> The type of items produced by the Stream
+     * @see #yieldsDistinctInt()
+     * @see #yieldsDistinctLong()
+     * @see #yieldsDistinctDouble()
+     */
+    public static <T> Matcher<Stream<T>> yieldsDistinct() {
+        return threadConfined(() -> new DistinctMatcher<Stream<T>>() {
+            @Override
+            Duplicate findDuplicate(Stream<T> actual) {
+                Map<T, Long> firstSeen = new HashMap<>();
+                Iterator<T> items = actual.iterator();
+                for (long position = 0; items.hasNext(); position++) {
+                    T item = items.next();
+                    Long earlier = firstSeen.putIfAbsent(item, position);
+                    if (earlier != null) {
+                        return new Duplicate(earlier, position, item);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive ints, no two of which may be equal. The ints are not boxed, and
+     * when they lie in a dense range, each int in that range takes 4 bytes to track.
+     *
+     * @see #yieldsDistinct()
+     */
+    public static Matcher<IntStream> yieldsDistinctInt() {
+        return threadConfined(() -> new DistinctMatcher<IntStream>() {
+            @Override
+            Duplicate findDuplicate(IntStream actual) {
+                LongFirstSeen firstSeen = new LongFirstSeen();
+                PrimitiveIterator.OfInt items = actual.iterator();
+                while (items.hasNext()) {
+                    int item = items.nextInt();
+                    int earlier = firstSeen.add(item);
+                    if (earlier >= 0) {
+                        return new Duplicate(earlier, firstSeen.size(), item);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive longs, no two of which may be equal. The longs are not boxed, and
+     * when they lie in a dense range, each long in that range takes 4 bytes to track.
+     *
+     * @see #yieldsDistinct()
+     */
+    public static Matcher<LongStream> yieldsDistinctLong() {
+        return threadConfined(() -> new DistinctMatcher<LongStream>() {
+            @Override
+            Duplicate findDuplicate(LongStream actual) {
+                LongFirstSeen firstSeen = new LongFirstSeen();
+                PrimitiveIterator.OfLong items = actual.iterator();
+                while (items.hasNext()) {
+                    long item = items.nextLong();
+                    int earlier = firstSeen.add(item);
+                    if (earlier >= 0) {
+                        return new Duplicate(earlier, firstSeen.size(), item);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, no two of which may be equal. Doubles are equal
+     * like {@link Double#equals(Object)}, the same as {@link DoubleStream#distinct()}.
+     *
+     * @see #yieldsDistinct()
+     */
+    public static Matcher<DoubleStream> yieldsDistinctDouble() {
+        return threadConfined(() -> new DistinctMatcher<DoubleStream>() {
+            @Override
+            Duplicate findDuplicate(DoubleStream actual) {
+                LongFirstSeen firstSeen = new LongFirstSeen();
+                PrimitiveIterator.OfDouble items = actual.iterator();
+                while (items.hasNext()) {
+                    double item = items.nextDouble();
+                    int earlier = firstSeen.add(Double.doubleToLongBits(item));
+                    if (earlier >= 0) {
+                        return new Duplicate(earlier, firstSeen.size(), item);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for the count, sum, minimum, maximum and average of a finite Stream of primitive ints, which are
+     * computed in a single pass, in parallel if the Stream is parallel. Each statistic can be matched separately,
+     * for instance:
+     * <pre>
+     * summarizesInt(allOf(
+     *         where(IntSummaryStatistics::getCount, is(100L)),
+     *         where(IntSummaryStatistics::getMax, lessThan(42))))
+     * </pre>
+     *
+     * @param matcher The Matcher for the summary statistics of the Stream
+     * @see IntStream#summaryStatistics()
+     * @see Java8Matchers#where(DescribableFunction, Matcher)
+     */
+    public static Matcher<IntStream> summarizesInt(Matcher<? super IntSummaryStatistics> matcher) {
+        return threadConfined(() -> new SummaryMatcher<IntStream, IntSummaryStatistics>(matcher) {
+            @Override
+            IntSummaryStatistics summarize(IntStream actual) {
+                return actual.summaryStatistics();
+            }
+        });
+    }
+
+    /**
+     * A matcher for the count, sum, minimum, maximum and average of a finite Stream of primitive longs, which are
+     * computed in a single pass, in parallel if the Stream is parallel.
+     *
+     * @param matcher The Matcher for the summary statistics of the Stream
+     * @see #summarizesInt(Matcher)
+     */
+    public static Matcher<LongStream> summarizesLong(Matcher<? super LongSummaryStatistics> matcher) {
+        return threadConfined(() -> new SummaryMatcher<LongStream, LongSummaryStatistics>(matcher) {
+            @Override
+            LongSummaryStatistics summarize(LongStream actual) {
+                return actual.summaryStatistics();
+            }
+        });
+    }
+
+    /**
+     * A matcher for the count, sum, minimum, maximum and average of a finite Stream of primitive doubles, which are
+     * computed in a single pass, in parallel if the Stream is parallel. The sum and average are computed with
+     * compensated (Kahan) summation, so they do not accumulate the rounding errors of a naive sum.
+     *
+     * @param matcher The Matcher for the summary statistics of the Stream
+     * @see #summarizesInt(Matcher)
+     */
+    public static Matcher<DoubleStream> summarizesDouble(Matcher<? super DoubleSummaryStatistics> matcher) {
+        return threadConfined(() -> new SummaryMatcher<DoubleStream, DoubleSummaryStatistics>(matcher) {
+            @Override
+            DoubleSummaryStatistics summarize(DoubleStream actual) {
+                return actual.summaryStatistics();
+            }
+        });
+    }
+
+    /**
+     * A matcher for a quantile of a finite Stream of primitive doubles, such as {@code quantile(0.99, lessThan(12.0))}
+     * for the 99th percentile. The quantile {@code q} of {@code n} items is the smallest item such that at least
+     * {@code q * n} items are less than or equal to it, ordering items like {@link Double#compare(double, double)}.
+     * <p>
+     * The quantile is estimated in a single pass and in bounded memory, in parallel if the Stream is parallel,
+     * by compacting the sorted items into a sketch. For up to 8192 items it is exact. Beyond that, the estimate has
+     * a rank within {@code n * log2(n / 8192) / 8192} of the exact quantile, which is less than 0.2% of the items
+     * for up to 100 million items. The bound of an estimate is included in the mismatch description.
+     *
+     * @param q The quantile, between 0 and 1
+     * @param matcher The Matcher for the quantile
+     * @see #exactQuantile(double, Matcher)
+     */
+    public static Matcher<DoubleStream> quantile(double q, Matcher<? super Double> matcher) {
+        return threadConfined(() -> new QuantileMatcher(q, false, matcher));
+    }
+
+    /**
+     * A matcher for a quantile of a finite Stream of primitive doubles, which retains and sorts all items
+     * to find the exact quantile.
+     *
+     * @param q The quantile, between 0 and 1
+     * @param matcher The Matcher for the quantile
+     * @see #quantile(double, Matcher)
+     */
+    public static Matcher<DoubleStream> exactQuantile(double q, Matcher<? super Double> matcher) {
+        return threadConfined(() -> new QuantileMatcher(q, true, matcher));
+    }
+
+    /**
+     * Limit how many elements the given matcher may consume from the Stream, and for how long. When the budget is
+     * exhausted, the matcher fails immediately, describing the first elements of the Stream, instead of running
+     * for as long as an infinite Stream keeps producing elements. The Stream is consumed sequentially.
+     * <p>
+     * The budget is checked as the Stream yields each element, so it can not stop a Stream which blocks, or which
+     * discards all further elements, for instance because of a filter. The time is only read every 1024 elements,
+     * and when the Stream ends, so that the budget stays cheap for cheap elements.
+     *
+     * @param budget The limits on the number of elements and time
+     * @param matcher The matcher for the Stream
+     * @param <S> The type of Stream
+     * @see Budget
+     */
+    public static <S extends BaseStream<?, ?>> Matcher<S> withinBudget(Budget budget, Matcher<? super S> matcher) {
+        return threadConfined(() -> new BudgetedMatcher<>(budget, matcher));
+    }
+
+    /**
+     * A matcher for a Stream of objects, which must yield the expected items contiguously and in order somewhere,
+     * like {@link String#contains(CharSequence)} does for characters. The Stream is searched in a single pass using
+     * the Knuth-Morris-Pratt algorithm, in time proportional to the items consumed and the expected items, retaining
+     * only the expected items, and is consumed no further than the first occurrence.
+     *
+     * @param expected The items that should be yielded in sequence
+     * @param <T> The type of items produced by the Stream
+     * @see #includesSequenceInt(int...)
+     * @see #includesSequenceLong(long...)
+     * @see #includesSequenceDouble(double...)
+     */
+    @SafeVarargs
+    public static <T> Matcher<Stream<T>> includesSequence(T... expected) {
+        return threadConfined(() -> new SequenceMatcher<Stream<T>>(Arrays.asList(expected)) {
+            @Override
+            void search(Stream<T> actual) {
+                int[] prefixes = prefixTable(expected.length, (i, j) -> Objects.equals(expected[i], expected[j]));
+                Iterator<T> items = actual.iterator();
+                int matched = 0;
+                while (matched < expected.length && items.hasNext()) {
+                    T item = items.next();
+                    while (matched > 0 && !Objects.equals(expected[matched], item)) {
+                        matched = prefixes[matched - 1];
+                    }
+                    if (Objects.equals(expected[matched], item)) {
+                        matched++;
+                    }
+                    advanced(matched);
+                }
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive ints, which must yield the expected ints contiguously and in order
+     * somewhere. The ints are not boxed.
+     *
+     * @param expected The ints that should be yielded in sequence
+     * @see #includesSequence(Object...)
+     */
+    public static Matcher<IntStream> includesSequenceInt(int... expected) {
+        return threadConfined(() -> new SequenceMatcher<IntStream>(IntStream.of(expected).boxed().collect(toList())) {
+            @Override
+            void search(IntStream actual) {
+                int[] prefixes = prefixTable(expected.length, (i, j) -> expected[i] == expected[j]);
+                PrimitiveIterator.OfInt items = actual.iterator();
+                int matched = 0;
+                while (matched < expected.length && items.hasNext()) {
+                    int item = items.nextInt();
+                    while (matched > 0 && expected[matched] != item) {
+                        matched = prefixes[matched - 1];
+                    }
+                    if (expected[matched] == item) {
+                        matched++;
+                    }
+                    advanced(matched);
+                }
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive longs, which must yield the expected longs contiguously and in order
+     * somewhere. The longs are not boxed.
+     *
+     * @param expected The longs that should be yielded in sequence
+     * @see #includesSequence(Object...)
+     */
+    public static Matcher<LongStream> includesSequenceLong(long... expected) {
+        return threadConfined(() -> new SequenceMatcher<LongStream>(LongStream.of(expected).boxed().collect(toList())) {
+            @Override
+            void search(LongStream actual) {
+                int[] prefixes = prefixTable(expected.length, (i, j) -> expected[i] == expected[j]);
+                PrimitiveIterator.OfLong items = actual.iterator();
+                int matched = 0;
+                while (matched < expected.length && items.hasNext()) {
+                    long item = items.nextLong();
+                    while (matched > 0 && expected[matched] != item) {
+                        matched = prefixes[matched - 1];
+                    }
+                    if (expected[matched] == item) {
+                        matched++;
+                    }
+                    advanced(matched);
+                }
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive doubles, which must yield the expected doubles contiguously and in order
+     * somewhere. The doubles are not boxed, and are compared like {@link Double#equals(Object)}.
+     *
+     * @param expected The doubles that should be yielded in sequence
+     * @see #includesSequence(Object...)
+     */
+    public static Matcher<DoubleStream> includesSequenceDouble(double... expected) {
+        long[] expectedBits = DoubleStream.of(expected).mapToLong(Double::doubleToLongBits).toArray();
+        return threadConfined(() -> new SequenceMatcher<DoubleStream>(DoubleStream.of(expected).boxed().collect(toList())) {
+            @Override
+            void search(DoubleStream actual) {
+                int[] prefixes = prefixTable(expectedBits.length, (i, j) -> expectedBits[i] == expectedBits[j]);
+                PrimitiveIterator.OfDouble items = actual.iterator();
+                int matched = 0;
+                while (matched < expectedBits.length && items.hasNext()) {
+                    long item = Double.doubleToLongBits(items.nextDouble());
+                    while (matched > 0 && expectedBits[matched] != item) {
+                        matched = prefixes[matched - 1];
+                    }
+                    if (expectedBits[matched] == item) {
+                        matched++;
+                    }
+                    advanced(matched);
+                }
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, which must be matched entirely by the given pattern of elements,
+     * like {@link String#matches(String)} does for characters and a regular expression. The pattern is compiled
+     * once into an automaton, which is run over the Stream in a single pass, retaining no items, and consuming
+     * the Stream no further than the first item the pattern can not match.
+     * <pre>
+     * yieldsMatching(sequence(
+     *         element(is(HANDSHAKE)),
+     *         anyOf(element(is(DATA)), element(is(ACK))).zeroOrMore(),
+     *         element(is(CLOSE))))
+     * </pre>
+     *
+     * @param pattern The pattern of elements the Stream must match
+     * @param <T> The type of items produced by the Stream
+     * @see ElementPattern
+     */
+    public static <T> Matcher<Stream<T>> yieldsMatching(ElementPattern<T> pattern) {
+        ElementAutomaton.Builder<T> builder = new ElementAutomaton.Builder<>();
+        int start = builder.state();
+        ElementAutomaton<T> automaton = builder.build(start, pattern.compile(builder, start));
+        return threadConfined(() -> new TypeSafeMatcher<Stream<T>>() {
+            private ElementAutomaton.Rejection rejection;
+
+            @Override
+            protected boolean matchesSafely(Stream<T> actual) {
+                rejection = automaton.run(actual.iterator()).orElse(null);
+                return rejection == null;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("A Stream matching ");
+                pattern.describeTo(description);
+            }
+
+            @Override
+            protected void describeMismatchSafely(Stream<T> actual, Description mismatchDescription) {
+                if (rejection.hasElement()) {
+                    mismatchDescription.appendText("Item ").appendText(Long.toString(rejection.getPosition()))
+                            .appendText(" was ").appendValue(rejection.getElement());
+                } else {
+                    mismatchDescription.appendText("the Stream ended after ").appendText(Long.toString(rejection.getPosition()))
+                            .appendText(rejection.getPosition() == 1 ? " item" : " items");
+                }
+                mismatchDescription.appendText(" in automaton state ").appendText(rejection.getState());
+                if (rejection.getExpected().isEmpty()) {
+                    mismatchDescription.appendText(", expecting the end of the Stream");
+                } else {
+                    mismatchDescription.appendList(", expecting an item matching ", " or ", "", rejection.getExpected());
+                }
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, of which every window of the given number of consecutive items must
+     * match the given Matcher, such as {@code everyWindow(10, hasSize(lessThan(4)))}. The windows slide by one item,
+     * and are views of a ring buffer of the most recent items, rather than copies.
+     *
+     * @param size The number of items in each window
+     * @param matcher The Matcher for each window, whose items are ordered as in the Stream
+     * @param <T> The type of items produced by the Stream
+     * @see #everyWindow(int, int, Matcher)
+     * @see #everyWindowInt(int, Matcher)
+     * @see #everyWindowLong(int, Matcher)
+     * @see #everyWindowDouble(int, Matcher)
+     */
+    public static <T> Matcher<Stream<T>> everyWindow(int size, Matcher<? super List<T>> matcher) {
+        return everyWindow(size, 1, matcher);
+    }
+
+    /**
+     * A matcher for a finite Stream of objects, of which every window of the given number of consecutive items,
+     * starting at every {@code step} items, must match the given Matcher. Windows overlap when {@code step} is less
+     * than {@code size}, and are tumbling windows when it equals the {@code size}. A Stream with fewer items than a
+     * window has no windows to match.
+     *
+     * @param size The number of items in each window
+     * @param step The number of items from the start of one window to the start of the next
+     * @param matcher The Matcher for each window, whose items are ordered as in the Stream
+     * @param <T> The type of items produced by the Stream
+     * @see #everyWindow(int, Matcher)
+     */
+    public static <T> Matcher<Stream<T>> everyWindow(int size, int step, Matcher<? super List<T>> matcher) {
+        return threadConfined(() -> new WindowMatcher<Stream<T>, List<T>>(size, step, matcher) {
+            @Override
+            boolean findFailingWindow(Stream<T> actual) {
+                RingBuffer<T> buffer = new RingBuffer<>(size);
+                List<T> window = new RingBufferList<>(buffer);
+                Iterator<T> items = actual.iterator();
+                for (long position = 0; items.hasNext(); position++) {
+                    buffer.add(items.next());
+                    if (isWindowEnd(position) && !matcher.matches(window)) {
+                        return failed(buffer.evicted(), new ArrayList<>(window));
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive ints, of which every window of the given number of consecutive
+     * ints must match the given Matcher, such as {@code everyWindowInt(100, where(IntWindow::getAverage, lessThan(5.0)))}.
+     * The windows slide by one item.
+     *
+     * @param size The number of items in each window
+     * @param matcher The Matcher for each window
+     * @see #everyWindowInt(int, int, Matcher)
+     * @see #everyWindow(int, Matcher)
+     */
+    public static Matcher<IntStream> everyWindowInt(int size, Matcher<? super IntWindow> matcher) {
+        return everyWindowInt(size, 1, matcher);
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive ints, of which every window of the given number of consecutive
+     * ints, starting at every {@code step} items, must match the given Matcher.
+     *
+     * @param size The number of items in each window
+     * @param step The number of items from the start of one window to the start of the next
+     * @param matcher The Matcher for each window
+     * @see #everyWindow(int, int, Matcher)
+     */
+    public static Matcher<IntStream> everyWindowInt(int size, int step, Matcher<? super IntWindow> matcher) {
+        return threadConfined(() -> new WindowMatcher<IntStream, IntWindow>(size, step, matcher) {
+            @Override
+            boolean findFailingWindow(IntStream actual) {
+                IntWindow window = new IntWindow(size);
+                PrimitiveIterator.OfInt items = actual.iterator();
+                for (long position = 0; items.hasNext(); position++) {
+                    window.add(items.nextInt());
+                    if (isWindowEnd(position) && !matcher.matches(window)) {
+                        return failed(window.getStart(), window.snapshot());
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive longs, of which every window of the given number of consecutive
+     * longs must match the given Matcher. The windows slide by one item.
+     *
+     * @param size The number of items in each window
+     * @param matcher The Matcher for each window
+     * @see #everyWindowLong(int, int, Matcher)
+     * @see #everyWindow(int, Matcher)
+     */
+    public static Matcher<LongStream> everyWindowLong(int size, Matcher<? super LongWindow> matcher) {
+        return everyWindowLong(size, 1, matcher);
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive longs, of which every window of the given number of consecutive
+     * longs, starting at every {@code step} items, must match the given Matcher.
+     *
+     * @param size The number of items in each window
+     * @param step The number of items from the start of one window to the start of the next
+     * @param matcher The Matcher for each window
+     * @see #everyWindow(int, int, Matcher)
+     */
+    public static Matcher<LongStream> everyWindowLong(int size, int step, Matcher<? super LongWindow> matcher) {
+        return threadConfined(() -> new WindowMatcher<LongStream, LongWindow>(size, step, matcher) {
+            @Override
+            boolean findFailingWindow(LongStream actual) {
+                LongWindow window = new LongWindow(size);
+                PrimitiveIterator.OfLong items = actual.iterator();
+                for (long position = 0; items.hasNext(); position++) {
+                    window.add(items.nextLong());
+                    if (isWindowEnd(position) && !matcher.matches(window)) {
+                        return failed(window.getStart(), window.snapshot());
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, of which every window of the given number of consecutive
+     * doubles must match the given Matcher. The windows slide by one item.
+     *
+     * @param size The number of items in each window
+     * @param matcher The Matcher for each window
+     * @see #everyWindowDouble(int, int, Matcher)
+     * @see #everyWindow(int, Matcher)
+     */
+    public static Matcher<DoubleStream> everyWindowDouble(int size, Matcher<? super DoubleWindow> matcher) {
+        return everyWindowDouble(size, 1, matcher);
+    }
+
+    /**
+     * A matcher for a finite Stream of primitive doubles, of which every window of the given number of consecutive
+     * doubles, starting at every {@code step} items, must match the given Matcher.
+     *
+     * @param size The number of items in each window
+     * @param step The number of items from the start of one window to the start of the next
+     * @param matcher The Matcher for each window
+     * @see #everyWindow(int, int, Matcher)
+     */
+    public static Matcher<DoubleStream> everyWindowDouble(int size, int step, Matcher<? super DoubleWindow> matcher) {
+        return threadConfined(() -> new WindowMatcher<DoubleStream, DoubleWindow>(size, step, matcher) {
+            @Override
+            boolean findFailingWindow(DoubleStream actual) {
+                DoubleWindow window = new DoubleWindow(size);
+                PrimitiveIterator.OfDouble items = actual.iterator();
+                for (long position = 0; items.hasNext(); position++) {
+                    window.add(items.nextDouble());
+                    if (isWindowEnd(position) && !matcher.matches(window)) {
+                        return failed(window.getStart(), window.snapshot());
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of objects, of which each item must be in the given relation to the preceding item,
+     * such as {@code eachConsecutivePair((previous, next) -> next.equals(previous.plusSeconds(1)))}. Only the
+     * preceding item is retained, and the Stream is consumed no further than the first pair not in the relation,
+     * so an infinite Stream can fail to match.
+     *
+     * @param relation The relation of each item, as the first argument, to the following item
+     * @param <T> The type of items produced by the Stream
+     * @see #eachConsecutivePair(BiFunction, Matcher)
+     * @see #eachConsecutivePairInt(IntBiPredicate)
+     * @see #eachConsecutivePairLong(LongBiPredicate)
+     * @see #eachConsecutivePairDouble(DoubleBiPredicate)
+     */
+    public static <T> Matcher<Stream<T>> eachConsecutivePair(BiPredicate<? super T, ? super T> relation) {
+        return threadConfined(() -> new PairMatcher<Stream<T>>(null) {
+            @Override
+            ConsecutivePair findViolation(Stream<T> actual) {
+                Iterator<T> items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                T previous = items.next();
+                for (long position = 1; items.hasNext(); position++) {
+                    T item = items.next();
+                    if (!relation.test(previous, item)) {
+                        return new ConsecutivePair(position, previous, item);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of objects, for which a value derived from each item and its preceding item must match
+     * the given Matcher, such as {@code eachConsecutivePair((previous, next) -> Duration.between(previous, next),
+     * lessThanOrEqualTo(Duration.ofSeconds(5)))}.
+     *
+     * @param relation The function deriving a value from each item, as the first argument, and the following item
+     * @param matcher The Matcher for each derived value
+     * @param <T> The type of items produced by the Stream
+     * @param <R> The type of the derived values
+     * @see #eachConsecutivePair(BiPredicate)
+     */
+    public static <T, R> Matcher<Stream<T>> eachConsecutivePair(BiFunction<? super T, ? super T, ? extends R> relation, Matcher<? super R> matcher) {
+        return threadConfined(() -> new PairMatcher<Stream<T>>(matcher) {
+            @Override
+            ConsecutivePair findViolation(Stream<T> actual) {
+                Iterator<T> items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                T previous = items.next();
+                for (long position = 1; items.hasNext(); position++) {
+                    T item = items.next();
+                    R related = relation.apply(previous, item);
+                    if (!matcher.matches(related)) {
+                        return new ConsecutivePair(position, previous, item, related);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive ints, of which each int must be in the given relation to the preceding one,
+     * such as {@code eachConsecutivePairInt((previous, next) -> next == previous + 1)}. The ints are not boxed.
+     *
+     * @param relation The relation of each item, as the first argument, to the following item
+     * @see #eachConsecutivePair(BiPredicate)
+     * @see #eachConsecutivePairInt(IntBinaryOperator, Matcher)
+     */
+    public static Matcher<IntStream> eachConsecutivePairInt(IntBiPredicate relation) {
+        return threadConfined(() -> new PairMatcher<IntStream>(null) {
+            @Override
+            ConsecutivePair findViolation(IntStream actual) {
+                PrimitiveIterator.OfInt items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                int previous = items.nextInt();
+                for (long position = 1; items.hasNext(); position++) {
+                    int item = items.nextInt();
+                    if (!relation.test(previous, item)) {
+                        return new ConsecutivePair(position, previous, item);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive ints, for which a value derived from each int and the preceding one must
+     * match the given Matcher, such as {@code eachConsecutivePairInt((previous, next) -> next - previous, lessThan(5))}.
+     * Only the derived values are boxed, to be matched.
+     *
+     * @param relation The function deriving a value from each item, as the first argument, and the following item
+     * @param matcher The Matcher for each derived value
+     * @see #eachConsecutivePair(BiFunction, Matcher)
+     * @see #eachConsecutivePairInt(IntBiPredicate)
+     */
+    public static Matcher<IntStream> eachConsecutivePairInt(IntBinaryOperator relation, Matcher<? super Integer> matcher) {
+        return threadConfined(() -> new PairMatcher<IntStream>(matcher) {
+            @Override
+            ConsecutivePair findViolation(IntStream actual) {
+                PrimitiveIterator.OfInt items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                int previous = items.nextInt();
+                for (long position = 1; items.hasNext(); position++) {
+                    int item = items.nextInt();
+                    int related = relation.applyAsInt(previous, item);
+                    if (!matcher.matches(related)) {
+                        return new ConsecutivePair(position, previous, item, related);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive longs, of which each long must be in the given relation to the preceding one,
+     * such as {@code eachConsecutivePairLong((previous, next) -> next == previous + 1)}. The longs are not boxed.
+     *
+     * @param relation The relation of each item, as the first argument, to the following item
+     * @see #eachConsecutivePair(BiPredicate)
+     * @see #eachConsecutivePairLong(LongBinaryOperator, Matcher)
+     */
+    public static Matcher<LongStream> eachConsecutivePairLong(LongBiPredicate relation) {
+        return threadConfined(() -> new PairMatcher<LongStream>(null) {
+            @Override
+            ConsecutivePair findViolation(LongStream actual) {
+                PrimitiveIterator.OfLong items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                long previous = items.nextLong();
+                for (long position = 1; items.hasNext(); position++) {
+                    long item = items.nextLong();
+                    if (!relation.test(previous, item)) {
+                        return new ConsecutivePair(position, previous, item);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive longs, for which a value derived from each long and the preceding one must
+     * match the given Matcher, such as {@code eachConsecutivePairLong((previous, next) -> next - previous, lessThan(5L))}.
+     * Only the derived values are boxed, to be matched.
+     *
+     * @param relation The function deriving a value from each item, as the first argument, and the following item
+     * @param matcher The Matcher for each derived value
+     * @see #eachConsecutivePair(BiFunction, Matcher)
+     * @see #eachConsecutivePairLong(LongBiPredicate)
+     */
+    public static Matcher<LongStream> eachConsecutivePairLong(LongBinaryOperator relation, Matcher<? super Long> matcher) {
+        return threadConfined(() -> new PairMatcher<LongStream>(matcher) {
+            @Override
+            ConsecutivePair findViolation(LongStream actual) {
+                PrimitiveIterator.OfLong items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                long previous = items.nextLong();
+                for (long position = 1; items.hasNext(); position++) {
+                    long item = items.nextLong();
+                    long related = relation.applyAsLong(previous, item);
+                    if (!matcher.matches(related)) {
+                        return new ConsecutivePair(position, previous, item, related);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive doubles, of which each double must be in the given relation to the preceding one,
+     * such as {@code eachConsecutivePairDouble((previous, next) -> next == previous + 1)}. The doubles are not boxed.
+     *
+     * @param relation The relation of each item, as the first argument, to the following item
+     * @see #eachConsecutivePair(BiPredicate)
+     * @see #eachConsecutivePairDouble(DoubleBinaryOperator, Matcher)
+     */
+    public static Matcher<DoubleStream> eachConsecutivePairDouble(DoubleBiPredicate relation) {
+        return threadConfined(() -> new PairMatcher<DoubleStream>(null) {
+            @Override
+            ConsecutivePair findViolation(DoubleStream actual) {
+                PrimitiveIterator.OfDouble items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                double previous = items.nextDouble();
+                for (long position = 1; items.hasNext(); position++) {
+                    double item = items.nextDouble();
+                    if (!relation.test(previous, item)) {
+                        return new ConsecutivePair(position, previous, item);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for a Stream of primitive doubles, for which a value derived from each double and the preceding one must
+     * match the given Matcher, such as {@code eachConsecutivePairDouble((previous, next) -> next - previous, lessThan(5.0))}.
+     * Only the derived values are boxed, to be matched.
+     *
+     * @param relation The function deriving a value from each item, as the first argument, and the following item
+     * @param matcher The Matcher for each derived value
+     * @see #eachConsecutivePair(BiFunction, Matcher)
+     * @see #eachConsecutivePairDouble(DoubleBiPredicate)
+     */
+    public static Matcher<DoubleStream> eachConsecutivePairDouble(DoubleBinaryOperator relation, Matcher<? super Double> matcher) {
+        return threadConfined(() -> new PairMatcher<DoubleStream>(matcher) {
+            @Override
+            ConsecutivePair findViolation(DoubleStream actual) {
+                PrimitiveIterator.OfDouble items = actual.iterator();
+                if (!items.hasNext()) {
+                    return null;
+                }
+                double previous = items.nextDouble();
+                for (long position = 1; items.hasNext(); position++) {
+                    double item = items.nextDouble();
+                    double related = relation.applyAsDouble(previous, item);
+                    if (!matcher.matches(related)) {
+                        return new ConsecutivePair(position, previous, item, related);
+                    }
+                    previous = item;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A matcher for the number of items produced by a Stream, such as {@code yieldsCount(greaterThan(3L))}. When the
+     * Stream knows its exact size, as one from a collection or a range does, the size is matched without producing
+     * any items, like {@link Stream#count()} may do; intermediate operations such as {@code peek} are then not
+     * performed. Otherwise the items are counted, without boxing any primitives.
+     *
+     * @param matcher The Matcher for the number of items
+     * @param <S> The type of BaseStream
+     * @see #yieldsCountAtMost(long)
+     * @see #yieldsCountAtLeast(long)
+     */
+    public static <S extends BaseStream<?, ?>> Matcher<S> yieldsCount(Matcher<? super Long> matcher) {
+        return threadConfined(() -> new CountMatcher<>(matcher, Long.MAX_VALUE, null));
+    }
+
+    /**
+     * A matcher for a Stream producing no more than the given number of items. Items are counted no further than
+     * one beyond the maximum, so an infinite Stream can fail to match.
+     *
+     * @param max The maximum number of items
+     * @param <S> The type of BaseStream
+     * @see #yieldsCount(Matcher)
+     */
+    public static <S extends BaseStream<?, ?>> Matcher<S> yieldsCountAtMost(long max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("max must not be negative, was " + max);
+        }
+        return threadConfined(() -> new CountMatcher<>(lessThanOrEqualTo(max), max == Long.MAX_VALUE ? max : max + 1, "at most " + max + " items"));
+    }
+
+    /**
+     * A matcher for a Stream producing at least the given number of items. Items are counted no further than the
+     * minimum, so an infinite Stream can match.
+     *
+     * @param min The minimum number of items
+     * @param <S> The type of BaseStream
+     * @see #yieldsCount(Matcher)
+     */
+    public static <S extends BaseStream<?, ?>> Matcher<S> yieldsCountAtLeast(long min) {
+        if (min < 0) {
+            throw new IllegalArgumentException("min must not be negative, was " + min);
+        }
+        return threadConfined(() -> new CountMatcher<>(greaterThanOrEqualTo(min), min, "at least " + min + " items"));
+    }
+
+    /**
+     * Determines how much of two compared Streams is retained to describe where they differ. Items are only
+     * kept around the first difference, and the items following those are counted up to a limit, so describing a
+     * mismatch takes bounded time and memory, even for infinite Streams.
+     *
+     * @see #yieldsSameAs(BaseStream, CapturePolicy)
+     * @see #yieldsExactly(CapturePolicy, Object...)
+     * @see #startsWith(CapturePolicy, Object...)
+     */
+    public static final class CapturePolicy {
+
+        private static final CapturePolicy DEFAULT = new CapturePolicy(10, 10, 10_000);
+
+        private final int before;
+        private final int after;
+        private final long countLimit;
+
+        private CapturePolicy(int before, int after, long countLimit) {
+            if (before < 0 || after < 0 || countLimit < 0) {
+                throw new IllegalArgumentException("Capture sizes must not be negative, got before=" + before + ", after=" + after + ", countLimit=" + countLimit);
+            }
+            this.before = before;
+            this.after = after;
+            this.countLimit = countLimit;
+        }
+
+        /**
+         * The policy used by the Stream comparing matchers unless stated otherwise: 10 items of
+         * context on each side of the first difference, followed by counting up to 10000 further items.
+         */
+        public static CapturePolicy defaults() {
+            return DEFAULT;
+        }
+
+        /**
+         * Capture the given number of items on each side of the first difference.
+         *
+         * @param before The number of equal items to show preceding the first difference
+         * @param after The number of items to show following the first difference
+         */
+        public static CapturePolicy context(int before, int after) {
+            return new CapturePolicy(before, after, DEFAULT.countLimit);
+        }
+
+        /**
+         * Count items following the captured context at most up to the given limit.
+         *
+         * @param countLimit The maximum number of additional items to count, 0 to not count at all.
+         */
+        public CapturePolicy countingRemainderUpTo(long countLimit) {
+            return new CapturePolicy(before, after, countLimit);
+        }
+
+        @Override
+        public String toString() {
+            return "CapturePolicy(before=" + before + ", after=" + after + ", countLimit=" + countLimit + ")";
+        }
+    }
+
+    /**
+     * Determines which items of a Stream are matched by a sampling matcher, such as
+     * {@link #allMatch(Matcher, Sampling)}. Samples are drawn by a pseudo random generator from a seed,
+     * so the same seed samples the same positions of a Stream again.
+     */
+    public static final class Sampling {
+
+        private final int size;
+        private final double rate;
+        private final long seed;
+
+        private Sampling(int size, double rate, long seed) {
+            this.size = size;
+            this.rate = rate;
+            this.seed = seed;
+        }
+
+        /**
+         * Match a sample of a fixed number of items, each item of the Stream being equally likely to be sampled.
+         * The sampled items are retained until the Stream is exhausted, and then matched.
+         *
+         * @param size The number of items to sample
+         * @param seed The seed of the sample
+         */
+        public static Sampling reservoir(int size, long seed) {
+            if (size < 0) {
+                throw new IllegalArgumentException("The sample size must not be negative, was " + size);
+            }
+            return new Sampling(size, Double.NaN, seed);
+        }
+
+        /**
+         * Match a sample of a fixed number of items, with a randomly chosen seed.
+         *
+         * @param size The number of items to sample
+         * @see #reservoir(int, long)
+         */
+        public static Sampling reservoir(int size) {
+            return reservoir(size, new SplittableRandom().nextLong());
+        }
+
+        /**
+         * Match each item of the Stream with the given probability. Items are matched as they are sampled, so
+         * the Stream is consumed no further than the first sampled item which does not match.
+         *
+         * @param rate The probability of each item being sampled, greater than 0 and at most 1
+         * @param seed The seed of the sample
+         */
+        public static Sampling bernoulli(double rate, long seed) {
+            if (!(rate > 0 && rate <= 1)) {
+                throw new IllegalArgumentException("The sample rate must be greater than 0 and at most 1, was " + rate);
+            }
+            return new Sampling(-1, rate, seed);
+        }
+
+        /**
+         * Match each item of the Stream with the given probability, with a randomly chosen seed.
+         *
+         * @param rate The probability of each item being sampled, greater than 0 and at most 1
+         * @see #bernoulli(double, long)
+         */
+        public static Sampling bernoulli(double rate) {
+            return bernoulli(rate, new SplittableRandom().nextLong());
+        }
+
+        public long seed() {
+            return seed;
+        }
+
+        void describeTo(Description description) {
+            if (size >= 0) {
+                description.appendText("a sample of ").appendText(Integer.toString(size)).appendText(size == 1 ? " item" : " items");
+            } else {
+                description.appendText("each item with probability ").appendText(Double.toString(rate));
+            }
+            description.appendText(" (seed ").appendText(Long.toString(seed)).appendText(")");
+        }
+
+        @Override
+        public String toString() {
+            return size >= 0
+                    ? "Sampling.reservoir(size=" + size + ", seed=" + seed + ")"
+                    : "Sampling.bernoulli(rate=" + rate + ", seed=" + seed + ")";
+        }
+    }
+
+    /**
+     * Limits on the number of elements a matcher may consume from a Stream, and on the time it may take.
+     *
+     * @see #withinBudget(Budget, Matcher)
+     */
+    public static final class Budget {
+
+        private final long maxElements;
+        private final long maxNanos;
+
+        private Budget(long maxElements, long maxNanos) {
+            if (maxElements < 0 || maxNanos < 0) {
+                throw new IllegalArgumentException("Budget must not be negative, got maxElements=" + maxElements + ", maxNanos=" + maxNanos);
+            }
+            this.maxElements = maxElements;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * A budget of elements, and unlimited time.
+         *
+         * @param maxElements The maximum number of elements to consume
+         */
+        public static Budget elements(long maxElements) {
+            return new Budget(maxElements, Long.MAX_VALUE);
+        }
+
+        /**
+         * A budget of time, measured from when matching starts, and unlimited elements.
+         *
+         * @param maxTime The maximum time to consume elements for
+         */
+        public static Budget time(Duration maxTime) {
+            return new Budget(Long.MAX_VALUE, maxTime.toNanos());
+        }
+
+        /**
+         * Limit this budget to the given number of elements as well.
+         *
+         * @param maxElements The maximum number of elements to consume
+         */
+        public Budget andElements(long maxElements) {
+            return new Budget(maxElements, maxNanos);
+        }
+
+        /**
+         * Limit this budget to the given time as well.
+         *
+         * @param maxTime The maximum time to consume elements for
+         */
+        public Budget andTime(Duration maxTime) {
+            return new Budget(maxElements, maxTime.toNanos());
+        }
+
+        void describeTo(Description description) {
+            description.appendText("within a budget of ");
+            if (maxElements != Long.MAX_VALUE) {
+                description.appendText(Long.toString(maxElements)).appendText(" elements");
+            }
+            if (maxElements != Long.MAX_VALUE && maxNanos != Long.MAX_VALUE) {
+                description.appendText(" / ");
+            }
+            if (maxNanos != Long.MAX_VALUE) {
+                description.appendText(Long.toString(TimeUnit.NANOSECONDS.toMillis(maxNanos))).appendText(" ms");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Budget(maxElements=" + maxElements + ", maxNanos=" + maxNanos + ")";
+        }
+    }
+
+    /**
+     * A regular expression over the elements of a Stream, whose symbols are Matchers of single elements.
+     * Patterns are combined by {@link #sequence(ElementPattern[]) sequence}, {@link #anyOf(ElementPattern[])
+     * alternation} and repetition.
+     *
+     * @param <T> The type of elements
+     * @see #yieldsMatching(ElementPattern)
+     */
+    public static abstract class ElementPattern<T> {
+
+        private ElementPattern() {
+        }
+
+        /**
+         * Compile the pattern into the automaton, starting from the given state.
+         *
+         * @return the state reached after matching the pattern
+         */
+        abstract int compile(ElementAutomaton.Builder<T> automaton, int from);
+
+        abstract void describeTo(Description description);
+
+        /**
+         * A single element matching the given Matcher.
+         */
+        public static <T> ElementPattern<T> element(Matcher<? super T> matcher) {
+            return new ElementPattern<T>() {
+                @Override
+                int compile(ElementAutomaton.Builder<T> automaton, int from) {
+                    int to = automaton.state();
+                    automaton.element(from, matcher, to);
+                    return to;
+                }
+
+                @Override
+                void describeTo(Description description) {
+                    description.appendValue(matcher);
+                }
+            };
+        }
+
+        /**
+         * Each of the given patterns, one after the other.
+         */
+        @SafeVarargs
+        public static <T> ElementPattern<T> sequence(ElementPattern<T>... patterns) {
+            return new ElementPattern<T>() {
+                @Override
+                int compile(ElementAutomaton.Builder<T> automaton, int from) {
+                    int to = from;
+                    for (ElementPattern<T> pattern : patterns) {
+                        to = pattern.compile(automaton, to);
+                    }
+                    return to;
+                }
+
+                @Override
+                void describeTo(Description description) {
+                    describeAll(description, "(", ", ", ")", patterns);
+                }
+            };
+        }
+
+        /**
+         * Any one of the given patterns.
+         */
+        @SafeVarargs
+        public static <T> ElementPattern<T> anyOf(ElementPattern<T>... alternatives) {
+            return new ElementPattern<T>() {
+                @Override
+                int compile(ElementAutomaton.Builder<T> automaton, int from) {
+                    int to = automaton.state();
+                    for (ElementPattern<T> alternative : alternatives) {
+                        int start = automaton.state();
+                        automaton.epsilon(from, start);
+                        automaton.epsilon(alternative.compile(automaton, start), to);
+                    }
+                    return to;
+                }
+
+                @Override
+                void describeTo(Description description) {
+                    describeAll(description, "(", "|", ")", alternatives);
+                }
+            };
+        }
+
+        /**
+         * This pattern, any number of times, including none, like {@code *}.
+         */
+        public ElementPattern<T> zeroOrMore() {
+            return repeated(0, -1, "*");
+        }
+
+        /**
+         * This pattern, at least once, like {@code +}.
+         */
+        public ElementPattern<T> oneOrMore() {
+            return repeated(1, -1, "+");
+        }
+
+        /**
+         * This pattern, or nothing, like {@code ?}.
+         */
+        public ElementPattern<T> optional() {
+            return repeated(0, 1, "?");
+        }
+
+        /**
+         * This pattern, exactly the given number of times, like <code>{n}</code>.
+         */
+        public ElementPattern<T> times(int count) {
+            return repeated(count, count, "{" + count + "}");
+        }
+
+        /**
+         * This pattern, between the given numbers of times, like <code>{min,max}</code>.
+         */
+        public ElementPattern<T> times(int min, int max) {
+            if (max < min) {
+                throw new IllegalArgumentException("max must not be less than min, got min=" + min + ", max=" + max);
+            }
+            return repeated(min, max, "{" + min + "," + max + "}");
+        }
+
+        /**
+         * This pattern, at least the given number of times, like <code>{min,}</code>.
+         */
+        public ElementPattern<T> atLeast(int min) {
+            return repeated(min, -1, "{" + min + ",}");
+        }
+
+        private ElementPattern<T> repeated(int min, int max, String quantifier) {
+            if (min < 0) {
+                throw new IllegalArgumentException("Repetitions must not be negative, got " + min);
+            }
+            ElementPattern<T> repeated = this;
+            return new ElementPattern<T>() {
+                @Override
+                int compile(ElementAutomaton.Builder<T> automaton, int from) {
+                    int at = from;
+                    for (int i = 0; i < min; i++) {
+                        at = repeated.compile(automaton, at);
+                    }
+                    if (max < 0) {
+                        int loop = automaton.state();
+                        automaton.epsilon(at, loop);
+                        automaton.epsilon(repeated.compile(automaton, loop), loop);
+                        return loop;
+                    }
+                    int to = automaton.state();
+                    for (int i = min; i < max; i++) {
+                        automaton.epsilon(at, to);
+                        at = repeated.compile(automaton, at);
+                    }
+                    automaton.epsilon(at, to);
+                    return to;
+                }
+
+                @Override
+                void describeTo(Description description) {
+                    repeated.describeTo(description);
+                    description.appendText(quantifier);
+                }
+            };
+        }
+
+        @SafeVarargs
+        private static <T> void describeAll(Description description, String start, String separator, String end, ElementPattern<T>... patterns) {
+            description.appendText(start);
+            for (int i = 0; i < patterns.length; i++) {
+                if (i > 0) {
+                    description.appendText(separator);
+                }
+                patterns[i].describeTo(description);
+            }
+            description.appendText(end);
+        }
+    }
+
+    /**
+     * A window of consecutive primitive ints of a Stream, as matched by {@link #everyWindowInt(int, int, Matcher)}.
+     * The sum, minimum and maximum are maintained as the window slides, in constant time per item. A window is only
+     * valid while it is being matched, as it then slides on.
+     */
+    public static final class IntWindow {
+        private final int capacity;
+        private final IntRingBuffer items;
+        private final PositionDeque minima;
+        private final PositionDeque maxima;
+        private long start = 0;
+        private long sum = 0;
+
+        IntWindow(int size) {
+            this.capacity = size;
+            this.items = new IntRingBuffer(size);
+            this.minima = new PositionDeque(size);
+            this.maxima = new PositionDeque(size);
+        }
+
+        void add(int item) {
+            if (isFull()) {
+                int oldest = items.get(0);
+                sum -= oldest;
+                if (minima.first() == start) {
+                    minima.removeFirst();
+                }
+                if (maxima.first() == start) {
+                    maxima.removeFirst();
+                }
+                start++;
+            }
+            items.add(item);
+            sum += item;
+            long position = start + items.size() - 1;
+            while (!minima.isEmpty() && valueAt(minima.last()) >= item) {
+                minima.removeLast();
+            }
+            minima.addLast(position);
+            while (!maxima.isEmpty() && valueAt(maxima.last()) <= item) {
+                maxima.removeLast();
+            }
+            maxima.addLast(position);
+        }
+
+        boolean isFull() {
+            return items.size() == capacity;
+        }
+
+        IntWindow snapshot() {
+            IntWindow snapshot = new IntWindow(items.size());
+            snapshot.start = start;
+            for (int i = 0; i < items.size(); i++) {
+                snapshot.add(items.get(i));
+            }
+            return snapshot;
+        }
+
+        private int valueAt(long position) {
+            return items.get((int) (position - start));
+        }
+
+        /**
+         * @return the position in the Stream of the first item of the window
+         */
+        public long getStart() {
+            return start;
+        }
+
+        public int size() {
+            return items.size();
+        }
+
+        /**
+         * @return the item at the given index within the window
+         */
+        public int get(int index) {
+            return items.get(index);
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public double getAverage() {
+            return items.size() > 0 ? (double) sum / items.size() : 0.0;
+        }
+
+        public int getMin() {
+            return valueAt(minima.first());
+        }
+
+        public int getMax() {
+            return valueAt(maxima.first());
+        }
+
+        public int[] toArray() {
+            return items.toArray();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+
+    /**
+     * A window of consecutive primitive longs of a Stream, as matched by {@link #everyWindowLong(int, int, Matcher)}.
+     * The sum, minimum and maximum are maintained as the window slides, in constant time per item. A window is only
+     * valid while it is being matched, as it then slides on.
+     */
+    public static final class LongWindow {
+        private final int capacity;
+        private final LongRingBuffer items;
+        private final PositionDeque minima;
+        private final PositionDeque maxima;
+        private long start = 0;
+        private long sum = 0;
+
+        LongWindow(int size) {
+            this.capacity = size;
+            this.items = new LongRingBuffer(size);
+            this.minima = new PositionDeque(size);
+            this.maxima = new PositionDeque(size);
+        }
+
+        void add(long item) {
+            if (isFull()) {
+                long oldest = items.get(0);
+                sum -= oldest;
+                if (minima.first() == start) {
+                    minima.removeFirst();
+                }
+                if (maxima.first() == start) {
+                    maxima.removeFirst();
+                }
+                start++;
+            }
+            items.add(item);
+            sum += item;
+            long position = start + items.size() - 1;
+            while (!minima.isEmpty() && valueAt(minima.last()) >= item) {
+                minima.removeLast();
+            }
+            minima.addLast(position);
+            while (!maxima.isEmpty() && valueAt(maxima.last()) <= item) {
+                maxima.removeLast();
+            }
+            maxima.addLast(position);
+        }
+
+        boolean isFull() {
+            return items.size() == capacity;
+        }
+
+        LongWindow snapshot() {
+            LongWindow snapshot = new LongWindow(items.size());
+            snapshot.start = start;
+            for (int i = 0; i < items.size(); i++) {
+                snapshot.add(items.get(i));
+            }
+            return snapshot;
+        }
+
+        private long valueAt(long position) {
+            return items.get((int) (position - start));
+        }
+
+        /**
+         * @return the position in the Stream of the first item of the window
+         */
+        public long getStart() {
+            return start;
+        }
+
+        public int size() {
+            return items.size();
+        }
+
+        /**
+         * @return the item at the given index within the window
+         */
+        public long get(int index) {
+            return items.get(index);
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public double getAverage() {
+            return items.size() > 0 ? (double) sum / items.size() : 0.0;
+        }
+
+        public long getMin() {
+            return valueAt(minima.first());
+        }
+
+        public long getMax() {
+            return valueAt(maxima.first());
+        }
+
+        public long[] toArray() {
+            return items.toArray();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+
+    /**
+     * A window of consecutive primitive doubles of a Stream, as matched by {@link #everyWindowDouble(int, int, Matcher)}.
+     * The sum, with compensated (Kahan) summation, the minimum and the maximum are maintained as the window
+     * slides, in amortized constant time per item. NaN and infinite items are counted apart from the sum of the
+     * finite items, which is summed again from the window when an item much larger than the rest leaves it, as
+     * subtracting that item would lose the precision of the others, and otherwise once every window size slides.
+     * A window is only valid while it is being matched, as it then slides on.
+     */
+    public static final class DoubleWindow {
+        // an item leaving the window is much larger than the rest when larger than them by half the significand
+        private static final double MUCH_LARGER = 0x1p26;
+
+        private final int capacity;
+        private final DoubleRingBuffer items;
+        private final PositionDeque minima;
+        private final PositionDeque maxima;
+        private long start = 0;
+        private double sum = 0;
+        private double compensation = 0;
+        private int nans = 0;
+        private int positiveInfinities = 0;
+        private int negativeInfinities = 0;
+        private int slidesSinceSummed = 0;
+
+        DoubleWindow(int size) {
+            this.capacity = size;
+            this.items = new DoubleRingBuffer(size);
+            this.minima = new PositionDeque(size);
+            this.maxima = new PositionDeque(size);
+        }
+
+        void add(double item) {
+            boolean sliding = isFull();
+            double oldest = 0;
+            if (sliding) {
+                oldest = items.get(0);
+                count(oldest, -1);
+                if (minima.first() == start) {
+                    minima.removeFirst();
+                }
+                if (maxima.first() == start) {
+                    maxima.removeFirst();
+                }
+                start++;
+            }
+            items.add(item);
+            count(item, 1);
+            long position = start + items.size() - 1;
+            while (!minima.isEmpty() && Double.compare(valueAt(minima.last()), item) >= 0) {
+                minima.removeLast();
+            }
+            minima.addLast(position);
+            while (!maxima.isEmpty() && Double.compare(valueAt(maxima.last()), item) <= 0) {
+                maxima.removeLast();
+            }
+            maxima.addLast(position);
+            if (sliding && (++slidesSinceSummed >= capacity || Math.abs(oldest) > MUCH_LARGER * largestMagnitude()
+                    || !Double.isFinite(sum) || !Double.isFinite(compensation))) {
+                sumFiniteItems();
+            }
+        }
+
+        boolean isFull() {
+            return items.size() == capacity;
+        }
+
+        DoubleWindow snapshot() {
+            DoubleWindow snapshot = new DoubleWindow(items.size());
+            snapshot.start = start;
+            for (int i = 0; i < items.size(); i++) {
+                snapshot.add(items.get(i));
+            }
+            return snapshot;
+        }
+
+        private void count(double item, int sign) {
+            if (Double.isNaN(item)) {
+                nans += sign;
+            } else if (item == Double.POSITIVE_INFINITY) {
+                positiveInfinities += sign;
+            } else if (item == Double.NEGATIVE_INFINITY) {
+                negativeInfinities += sign;
+            } else {
+                addToSum(sign * item);
+            }
+        }
+
+        // Kahan summation, so that the rounding errors of adding and removing items do not accumulate
+        private void addToSum(double value) {
+            double compensated = value - compensation;
+            double next = sum + compensated;
+            compensation = (next - sum) - compensated;
+            sum = next;
+        }
+
+        private void sumFiniteItems() {
+            sum = 0;
+            compensation = 0;
+            for (int i = 0; i < items.size(); i++) {
+                double item = items.get(i);
+                if (Double.isFinite(item)) {
+                    addToSum(item);
+                }
+            }
+            slidesSinceSummed = 0;
+        }
+
+        // NaN if the window holds a NaN, which does not compare as larger than the leaving item
+        private double largestMagnitude() {
+            return Math.max(Math.abs(getMin()), Math.abs(getMax()));
+        }
+
+        private double valueAt(long position) {
+            return items.get((int) (position - start));
+        }
+
+        /**
+         * @return the position in the Stream of the first item of the window
+         */
+        public long getStart() {
+            return start;
+        }
+
+        public int size() {
+            return items.size();
+        }
+
+        /**
+         * @return the item at the given index within the window
+         */
+        public double get(int index) {
+            return items.get(index);
+        }
+
+        public double getSum() {
+            if (nans > 0 || positiveInfinities > 0 && negativeInfinities > 0) {
+                return Double.NaN;
+            } else if (positiveInfinities > 0) {
+                return Double.POSITIVE_INFINITY;
+            } else if (negativeInfinities > 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return sum;
+        }
+
+        public double getAverage() {
+            return items.size() > 0 ? getSum() / items.size() : 0.0;
+        }
+
+        public double getMin() {
+            return valueAt(minima.first());
+        }
+
+        public double getMax() {
+            return valueAt(maxima.first());
+        }
+
+        public double[] toArray() {
+            return items.toArray();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+
+    private static abstract class Capture {
+        final CapturePolicy policy;
+        private long skipped = 0;
+        private long uncaptured = 0;
+        private boolean exhausted = true;
+
+        Capture(CapturePolicy policy) {
+            this.policy = policy;
+        }
+
+        abstract int contextSize();
+
+        abstract long evicted();
+
+        abstract int remainderSize();
+
+        abstract void appendContext(Description description);
+
+        abstract void appendRemainder(Description description);
+
+        /**
+         * Complete the context of this capture, when it does not fill the policy, with the last items of the
+         * context of the capture of the items immediately preceding the captured ones.
+         */
+        abstract void precededBy(Capture preceding);
+
+        /**
+         * @return the number of equal items preceding the first difference
+         */
+        long equalItems() {
+            return skipped + evicted() + contextSize();
+        }
+
+        /**
+         * Account for items outside of what was compared to produce this capture, when a
+         * part of a Stream has been compared in isolation. The following items are counted up to the
+         * limit of the policy, as if they had been counted sequentially.
+         */
+        void relocate(long preceding, long following) {
+            skipped = preceding;
+            uncaptured = Math.min(following, policy.countLimit);
+            exhausted = following <= policy.countLimit;
+        }
+
+        /**
+         * Account for the items following this capture in a Stream of the given known size, when only a
+         * prefix of the Stream has been compared.
+         */
+        void sized(long size) {
+            uncaptured = size - equalItems() - remainderSize();
+            exhausted = true;
+        }
+
+        /**
+         * Count the given number of items buffered from a Stream, followed by its remaining items.
+         */
+        void count(int buffered, Iterator<?> remaining) {
+            long counted = Math.min(buffered, policy.countLimit - uncaptured);
+            uncaptured += counted;
+            if (counted < buffered) {
+                exhausted = false;
+                return;
+            }
+            count(remaining);
+        }
+
+        void count(Iterator<?> remaining) {
+            while (uncaptured < policy.countLimit && remaining.hasNext()) {
+                remaining.next();
+                uncaptured++;
+            }
+            exhausted = !remaining.hasNext();
+        }
+
+        void describe(Description description) {
+            boolean truncated = uncaptured > 0 || !exhausted;
+            description.appendText("Stream of ").appendText(skipped + evicted() > 0 ? "[...," : "[");
+            appendContext(description);
+            if (contextSize() > 0 && remainderSize() > 0) {
+                description.appendText(",");
+            }
+            appendRemainder(description);
+            description.appendText(truncated ? ",...]" : "]");
+            if (uncaptured == 0 && !exhausted) {
+                description.appendText(" followed by more items");
+            } else if (truncated) {
+                description.appendText(exhausted ? " followed by " : " followed by at least ")
+                        .appendText(Long.toString(uncaptured)).appendText(uncaptured == 1 ? " more item" : " more items");
+            }
+        }
+    }
+
+    private static final class ObjectCapture<T> extends Capture {
+        private RingBuffer<T> context;
+        private final List<T> remainder = new ArrayList<>();
+
+        ObjectCapture(CapturePolicy policy) {
+            super(policy);
+            this.context = new RingBuffer<>(policy.before);
+        }
+
+        void equal(T item) {
+            context.add(item);
+        }
+
+        void differing(T item) {
+            remainder.add(item);
+        }
+
+        void capture(Iterator<T> remaining) {
+            while (remainder.size() <= policy.after && remaining.hasNext()) {
+                remainder.add(remaining.next());
+            }
+            count(remaining);
+        }
+
+        @Override
+        int contextSize() {
+            return context.size();
+        }
+
+        @Override
+        long evicted() {
+            return context.evicted();
+        }
+
+        @Override
+        int remainderSize() {
+            return remainder.size();
+        }
+
+        @Override
+        void appendContext(Description description) {
+            description.appendValueList("", ",", "", context);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void precededBy(Capture preceding) {
+            RingBuffer<T> precedingContext = ((ObjectCapture<T>) preceding).context;
+            RingBuffer<T> joined = new RingBuffer<>(policy.before);
+            for (int i = Math.max(0, precedingContext.size() - (policy.before - context.size())); i < precedingContext.size(); i++) {
+                joined.add(precedingContext.get(i));
+            }
+            context.forEach(joined::add);
+            context = joined;
+        }
+
+        @Override
+        void appendRemainder(Description description) {
+            description.appendValueList("", ",", "", remainder);
+        }
+    }
+
+    private static final class IntCapture extends Capture {
+        private IntRingBuffer context;
+        private final IntBuffer remainder = new IntBuffer();
+
+        IntCapture(CapturePolicy policy) {
+            super(policy);
+            this.context = new IntRingBuffer(policy.before);
+        }
+
+        void equal(int item) {
+            context.add(item);
+        }
+
+        void equal(int[] chunk, int count) {
+            context.addAll(chunk, 0, count);
+        }
+
+        void differing(int item) {
+            remainder.add(item);
+        }
+
+        void capture(PrimitiveIterator.OfInt remaining) {
+            while (remainder.size() <= policy.after && remaining.hasNext()) {
+                remainder.add(remaining.nextInt());
+            }
+            count(remaining);
+        }
+
+        /**
+         * Capture the items of a range of a chunk buffered from a Stream, followed by its remaining items.
+         */
+        void capture(int[] chunk, int from, int to, PrimitiveIterator.OfInt remaining) {
+            int next = from;
+            while (remainder.size() <= policy.after && next < to) {
+                remainder.add(chunk[next++]);
+            }
+            if (next < to) {
+                count(to - next, remaining);
+            } else {
+                capture(remaining);
+            }
+        }
+
+        @Override
+        int contextSize() {
+            return context.size();
+        }
+
+        @Override
+        long evicted() {
+            return context.evicted();
+        }
+
+        @Override
+        int remainderSize() {
+            return remainder.size();
+        }
+
+        @Override
+        void appendContext(Description description) {
+            context.appendValueList(description, "", ",", "");
+        }
+
+        @Override
+        void precededBy(Capture preceding) {
+            IntRingBuffer precedingContext = ((IntCapture) preceding).context;
+            IntRingBuffer joined = new IntRingBuffer(policy.before);
+            for (int i = Math.max(0, precedingContext.size() - (policy.before - context.size())); i < precedingContext.size(); i++) {
+                joined.add(precedingContext.get(i));
+            }
+            for (int i = 0; i < context.size(); i++) {
+                joined.add(context.get(i));
+            }
+            context = joined;
+        }
+
+        @Override
+        void appendRemainder(Description description) {
+            remainder.appendValueList(description, "", ",", "");
+        }
+    }
+
+    private static final class LongCapture extends Capture {
+        private LongRingBuffer context;
+        private final LongBuffer remainder = new LongBuffer();
+
+        LongCapture(CapturePolicy policy) {
+            super(policy);
+            this.context = new LongRingBuffer(policy.before);
+        }
+
+        void equal(long item) {
+            context.add(item);
+        }
+
+        void equal(long[] chunk, int count) {
+            context.addAll(chunk, 0, count);
+        }
+
+        void differing(long item) {
+            remainder.add(item);
+        }
+
+        void capture(PrimitiveIterator.OfLong remaining) {
+            while (remainder.size() <= policy.after && remaining.hasNext()) {
+                remainder.add(remaining.nextLong());
+            }
+            count(remaining);
+        }
+
+        /**
+         * Capture the items of a range of a chunk buffered from a Stream, followed by its remaining items.
+         */
+        void capture(long[] chunk, int from, int to, PrimitiveIterator.OfLong remaining) {
+            int next = from;
+            while (remainder.size() <= policy.after && next < to) {
+                remainder.add(chunk[next++]);
+            }
+            if (next < to) {
+                count(to - next, remaining);
+            } else {
+                capture(remaining);
+            }
+        }
+
+        @Override
+        int contextSize() {
+            return context.size();
+        }
+
+        @Override
+        long evicted() {
+            return context.evicted();
+        }
+
+        @Override
+        int remainderSize() {
+            return remainder.size();
+        }
+
+        @Override
+        void appendContext(Description description) {
+            context.appendValueList(description, "", ",", "");
+        }
+
+        @Override
+        void precededBy(Capture preceding) {
+            LongRingBuffer precedingContext = ((LongCapture) preceding).context;
+            LongRingBuffer joined = new LongRingBuffer(policy.before);
+            for (int i = Math.max(0, precedingContext.size() - (policy.before - context.size())); i < precedingContext.size(); i++) {
+                joined.add(precedingContext.get(i));
+            }
+            for (int i = 0; i < context.size(); i++) {
+                joined.add(context.get(i));
+            }
+            context = joined;
+        }
+
+        @Override
+        void appendRemainder(Description description) {
+            remainder.appendValueList(description, "", ",", "");
+        }
+    }
+
+    private static final class DoubleCapture extends Capture {
+        private DoubleRingBuffer context;
+        private final DoubleBuffer remainder = new DoubleBuffer();
+
+        DoubleCapture(CapturePolicy policy) {
+            super(policy);
+            this.context = new DoubleRingBuffer(policy.before);
+        }
+
+        void equal(double item) {
+            context.add(item);
+        }
+
+        void equal(double[] chunk, int count) {
+            context.addAll(chunk, 0, count);
+        }
+
+        void differing(double item) {
+            remainder.add(item);
+        }
+
+        void capture(PrimitiveIterator.OfDouble remaining) {
+            while (remainder.size() <= policy.after && remaining.hasNext()) {
+                remainder.add(remaining.nextDouble());
+            }
+            count(remaining);
+        }
+
+        /**
+         * Capture the items of a range of a chunk buffered from a Stream, followed by its remaining items.
+         */
+        void capture(double[] chunk, int from, int to, PrimitiveIterator.OfDouble remaining) {
+            int next = from;
+            while (remainder.size() <= policy.after && next < to) {
+                remainder.add(chunk[next++]);
+            }
+            if (next < to) {
+                count(to - next, remaining);
+            } else {
+                capture(remaining);
+            }
+        }
+
+        @Override
+        int contextSize() {
+            return context.size();
+        }
+
+        @Override
+        long evicted() {
+            return context.evicted();
+        }
+
+        @Override
+        int remainderSize() {
+            return remainder.size();
+        }
+
+        @Override
+        void appendContext(Description description) {
+            context.appendValueList(description, "", ",", "");
+        }
+
+        @Override
+        void precededBy(Capture preceding) {
+            DoubleRingBuffer precedingContext = ((DoubleCapture) preceding).context;
+            DoubleRingBuffer joined = new DoubleRingBuffer(policy.before);
+            for (int i = Math.max(0, precedingContext.size() - (policy.before - context.size())); i < precedingContext.size(); i++) {
+                joined.add(precedingContext.get(i));
+            }
+            for (int i = 0; i < context.size(); i++) {
+                joined.add(context.get(i));
+            }
+            context = joined;
+        }
+
+        @Override
+        void appendRemainder(Description description) {
+            remainder.appendValueList(description, "", ",", "");
+        }
+    }
+
+    private static final class Comparison {
+        final Capture expected;
+        final Capture actual;
+        final boolean matched;
+
+        Comparison(Capture expected, Capture actual, boolean matched) {
+            this.expected = expected;
+            this.actual = actual;
+            this.matched = matched;
+        }
+
+        static Comparison notYetCompared(CapturePolicy policy) {
+            return new Comparison(new ObjectCapture<>(policy), new ObjectCapture<>(policy), false);
+        }
+    }
+
+    private static <E,T> Comparison compareItems(Iterator<E> expectedIterator, Iterator<T> actualIterator, BiPredicate<? super E, ? super T> itemMatches, CapturePolicy policy) {
+        ObjectCapture<E> expected = new ObjectCapture<>(policy);
+        ObjectCapture<T> actual = new ObjectCapture<>(policy);
+        while (expectedIterator.hasNext() && actualIterator.hasNext()) {
+            E nextExpected = expectedIterator.next();
+            T nextActual = actualIterator.next();
+            if (!itemMatches.test(nextExpected, nextActual)) {
+                expected.differing(nextExpected);
+                actual.differing(nextActual);
+                break;
+            }
+            expected.equal(nextExpected);
+            actual.equal(nextActual);
+        }
+        if (expected.remainderSize() == 0 && !expectedIterator.hasNext() && !actualIterator.hasNext()) {
+            return new Comparison(expected, actual, true);
+        }
+        expected.capture(expectedIterator);
+        actual.capture(actualIterator);
+        return new Comparison(expected, actual, false);
+    }
+
+    private static <T> Comparison compareEqualItems(Iterator<T> expectedIterator, Iterator<T> actualIterator, CapturePolicy policy) {
+        if (expectedIterator instanceof PrimitiveIterator.OfInt && actualIterator instanceof PrimitiveIterator.OfInt) {
+            return compareInts((PrimitiveIterator.OfInt) expectedIterator, (PrimitiveIterator.OfInt) actualIterator, policy);
+        } else if (expectedIterator instanceof PrimitiveIterator.OfLong && actualIterator instanceof PrimitiveIterator.OfLong) {
+            return compareLongs((PrimitiveIterator.OfLong) expectedIterator, (PrimitiveIterator.OfLong) actualIterator, policy);
+        } else if (expectedIterator instanceof PrimitiveIterator.OfDouble && actualIterator instanceof PrimitiveIterator.OfDouble) {
+            return compareDoubles((PrimitiveIterator.OfDouble) expectedIterator, (PrimitiveIterator.OfDouble) actualIterator, policy);
+        }
+        return compareItems(expectedIterator, actualIterator, Objects::equals, policy);
+    }
+
+    /**
+     * Primitive items are compared in chunks, drained from each side into arrays which are then scanned for the
+     * first difference, so that only the items preceding a difference within the capture policy's context are
+     * retained, rather than every equal item. Chunks grow from a small size, to not produce many items beyond a
+     * difference early in a Stream.
+     */
+    private static final int FIRST_CHUNK_SIZE = 16;
+    private static final int MAX_CHUNK_SIZE = 1 << 10;
+
+    private static Comparison compareInts(PrimitiveIterator.OfInt expectedIterator, PrimitiveIterator.OfInt actualIterator, CapturePolicy policy) {
+        IntCapture expected = new IntCapture(policy);
+        IntCapture actual = new IntCapture(policy);
+        int[] expectedChunk = new int[FIRST_CHUNK_SIZE];
+        int[] actualChunk = new int[FIRST_CHUNK_SIZE];
+        while (true) {
+            int expectedCount = fill(expectedIterator, expectedChunk);
+            int actualCount = fill(actualIterator, actualChunk);
+            int length = Math.min(expectedCount, actualCount);
+            int equal = 0;
+            while (equal < length && expectedChunk[equal] == actualChunk[equal]) {
+                equal++;
+            }
+            expected.equal(expectedChunk, equal);
+            actual.equal(actualChunk, equal);
+            if (equal < length) {
+                expected.differing(expectedChunk[equal]);
+                actual.differing(actualChunk[equal]);
+                expected.capture(expectedChunk, equal + 1, expectedCount, expectedIterator);
+                actual.capture(actualChunk, equal + 1, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (expectedCount != actualCount) {
+                expected.capture(expectedChunk, length, expectedCount, expectedIterator);
+                actual.capture(actualChunk, length, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (length < expectedChunk.length) {
+                return new Comparison(expected, actual, true);
+            }
+            if (expectedChunk.length < MAX_CHUNK_SIZE) {
+                expectedChunk = new int[expectedChunk.length * 2];
+                actualChunk = new int[actualChunk.length * 2];
+            }
+        }
+    }
+
+    private static Comparison compareLongs(PrimitiveIterator.OfLong expectedIterator, PrimitiveIterator.OfLong actualIterator, CapturePolicy policy) {
+        LongCapture expected = new LongCapture(policy);
+        LongCapture actual = new LongCapture(policy);
+        long[] expectedChunk = new long[FIRST_CHUNK_SIZE];
+        long[] actualChunk = new long[FIRST_CHUNK_SIZE];
+        while (true) {
+            int expectedCount = fill(expectedIterator, expectedChunk);
+            int actualCount = fill(actualIterator, actualChunk);
+            int length = Math.min(expectedCount, actualCount);
+            int equal = 0;
+            while (equal < length && expectedChunk[equal] == actualChunk[equal]) {
+                equal++;
+            }
+            expected.equal(expectedChunk, equal);
+            actual.equal(actualChunk, equal);
+            if (equal < length) {
+                expected.differing(expectedChunk[equal]);
+                actual.differing(actualChunk[equal]);
+                expected.capture(expectedChunk, equal + 1, expectedCount, expectedIterator);
+                actual.capture(actualChunk, equal + 1, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (expectedCount != actualCount) {
+                expected.capture(expectedChunk, length, expectedCount, expectedIterator);
+                actual.capture(actualChunk, length, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (length < expectedChunk.length) {
+                return new Comparison(expected, actual, true);
+            }
+            if (expectedChunk.length < MAX_CHUNK_SIZE) {
+                expectedChunk = new long[expectedChunk.length * 2];
+                actualChunk = new long[actualChunk.length * 2];
+            }
+        }
+    }
+
+    /**
+     * Doubles are compared like {@link Double#equals(Object)}, i.e. {@code NaN} equals itself,
+     * and {@code 0.0} does not equal {@code -0.0}.
+     */
+    private static Comparison compareDoubles(PrimitiveIterator.OfDouble expectedIterator, PrimitiveIterator.OfDouble actualIterator, CapturePolicy policy) {
+        DoubleCapture expected = new DoubleCapture(policy);
+        DoubleCapture actual = new DoubleCapture(policy);
+        double[] expectedChunk = new double[FIRST_CHUNK_SIZE];
+        double[] actualChunk = new double[FIRST_CHUNK_SIZE];
+        while (true) {
+            int expectedCount = fill(expectedIterator, expectedChunk);
+            int actualCount = fill(actualIterator, actualChunk);
+            int length = Math.min(expectedCount, actualCount);
+            int equal = 0;
+            while (equal < length && Double.doubleToLongBits(expectedChunk[equal]) == Double.doubleToLongBits(actualChunk[equal])) {
+                equal++;
+            }
+            expected.equal(expectedChunk, equal);
+            actual.equal(actualChunk, equal);
+            if (equal < length) {
+                expected.differing(expectedChunk[equal]);
+                actual.differing(actualChunk[equal]);
+                expected.capture(expectedChunk, equal + 1, expectedCount, expectedIterator);
+                actual.capture(actualChunk, equal + 1, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (expectedCount != actualCount) {
+                expected.capture(expectedChunk, length, expectedCount, expectedIterator);
+                actual.capture(actualChunk, length, actualCount, actualIterator);
+                return new Comparison(expected, actual, false);
+            }
+            if (length < expectedChunk.length) {
+                return new Comparison(expected, actual, true);
+            }
+            if (expectedChunk.length < MAX_CHUNK_SIZE) {
+                expectedChunk = new double[expectedChunk.length * 2];
+                actualChunk = new double[actualChunk.length * 2];
+            }
+        }
+    }
+
+    /**
+     * @return the number of items drained into the chunk, fewer than its length only if the items are exhausted
+     */
+    private static int fill(PrimitiveIterator.OfInt items, int[] chunk) {
+        if (items instanceof IntArrayIterator) {
+            return ((IntArrayIterator) items).drainTo(chunk);
+        }
+        int count = 0;
+        while (count < chunk.length && items.hasNext()) {
+            chunk[count++] = items.nextInt();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of items drained into the chunk, fewer than its length only if the items are exhausted
+     */
+    private static int fill(PrimitiveIterator.OfLong items, long[] chunk) {
+        if (items instanceof LongArrayIterator) {
+            return ((LongArrayIterator) items).drainTo(chunk);
+        }
+        int count = 0;
+        while (count < chunk.length && items.hasNext()) {
+            chunk[count++] = items.nextLong();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of items drained into the chunk, fewer than its length only if the items are exhausted
+     */
+    private static int fill(PrimitiveIterator.OfDouble items, double[] chunk) {
+        if (items instanceof DoubleArrayIterator) {
+            return ((DoubleArrayIterator) items).drainTo(chunk);
+        }
+        int count = 0;
+        while (count < chunk.length && items.hasNext()) {
+            chunk[count++] = items.nextDouble();
+        }
+        return count;
+    }
+
+    /**
+     * Compares two ordered Streams of the same known size by splitting them at the same positions, and comparing
+     * the parts concurrently on the common {@link ForkJoinPool}. Only the part containing the first difference
+     * captures items to describe it, so context preceding the difference is limited to that part.
+     */
+    private static final class ParallelComparison<T> extends RecursiveAction {
+        private static final long LEAF_SIZE = 1L << 14;
+
+        private final Spliterator<T> expected;
+        private final Spliterator<T> actual;
+        private final long position;
+        private final CapturePolicy policy;
+        private final AtomicReference<LocatedComparison> firstDifference;
+        private final Map<Long, LocatedComparison> equalPartsByEnd;
+
+        private ParallelComparison(Spliterator<T> expected, Spliterator<T> actual, long position, CapturePolicy policy,
+                                   AtomicReference<LocatedComparison> firstDifference, Map<Long, LocatedComparison> equalPartsByEnd) {
+            this.expected = expected;
+            this.actual = actual;
+            this.position = position;
+            this.policy = policy;
+            this.firstDifference = firstDifference;
+            this.equalPartsByEnd = equalPartsByEnd;
+        }
+
+        static boolean applicable(Spliterator<?> expected, Spliterator<?> actual) {
+            int characteristics = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED;
+            return expected.hasCharacteristics(characteristics) && actual.hasCharacteristics(characteristics)
+                    && expected.getExactSizeIfKnown() == actual.getExactSizeIfKnown();
+        }
+
+        static <T> Comparison compare(Spliterator<T> expected, Spliterator<T> actual, CapturePolicy policy) {
+            long size = expected.getExactSizeIfKnown();
+            AtomicReference<LocatedComparison> firstDifference = new AtomicReference<>();
+            Map<Long, LocatedComparison> equalPartsByEnd = new ConcurrentHashMap<>();
+            ForkJoinPool.commonPool().invoke(new ParallelComparison<>(expected, actual, 0, policy, firstDifference, equalPartsByEnd));
+            LocatedComparison difference = firstDifference.get();
+            if (difference == null) {
+                return new Comparison(new ObjectCapture<>(policy), new ObjectCapture<>(policy), true);
+            }
+            Comparison comparison = difference.comparison;
+            int contextSize = comparison.expected.contextSize();
+            long start = difference.position;
+            while (comparison.expected.contextSize() < policy.before && equalPartsByEnd.containsKey(start)) {
+                LocatedComparison equalPart = equalPartsByEnd.get(start);
+                comparison.expected.precededBy(equalPart.comparison.expected);
+                comparison.actual.precededBy(equalPart.comparison.actual);
+                start = equalPart.position;
+            }
+            long preceding = difference.position - (comparison.expected.contextSize() - contextSize);
+            comparison.expected.relocate(preceding, size - comparison.expected.equalItems() - preceding - comparison.expected.remainderSize());
+            comparison.actual.relocate(preceding, size - comparison.actual.equalItems() - preceding - comparison.actual.remainderSize());
+            return comparison;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> expectedRemaining = expected;
+            Spliterator<T> actualRemaining = actual;
+            long remainingPosition = position;
+            List<ParallelComparison<T>> suffixes = new ArrayList<>();
+            while (expectedRemaining.estimateSize() > LEAF_SIZE && remainingPosition < firstDifferencePosition()) {
+                Spliterator<T> expectedPrefix = expectedRemaining.trySplit();
+                if (expectedPrefix == null) {
+                    break;
+                }
+                Spliterator<T> actualPrefix = actualRemaining.trySplit();
+                if (actualPrefix == null || actualPrefix.getExactSizeIfKnown() != expectedPrefix.getExactSizeIfKnown()) {
+                    Iterator<T> actualItems = actualPrefix == null ? iteratorOf(actualRemaining) : new ConcatIterator<>(actualPrefix, actualRemaining);
+                    compareSequentially(new ConcatIterator<>(expectedPrefix, expectedRemaining), actualItems, remainingPosition);
+                    joinAll(suffixes);
+                    return;
+                }
+                ParallelComparison<T> suffix = new ParallelComparison<>(expectedRemaining, actualRemaining, remainingPosition + expectedPrefix.getExactSizeIfKnown(), policy, firstDifference, equalPartsByEnd);
+                suffix.fork();
+                suffixes.add(suffix);
+                expectedRemaining = expectedPrefix;
+                actualRemaining = actualPrefix;
+            }
+            if (remainingPosition < firstDifferencePosition()) {
+                compareSequentially(iteratorOf(expectedRemaining), iteratorOf(actualRemaining), remainingPosition);
+            }
+            joinAll(suffixes);
+        }
+
+        /**
+         * Compare a part of the Streams, recording where it differs, or otherwise its last equal items, to
+         * describe the context of a difference on the first item of the following part.
+         */
+        private void compareSequentially(Iterator<T> expectedItems, Iterator<T> actualItems, long startPosition) {
+            Comparison comparison = compareEqualItems(expectedItems, actualItems, policy);
+            if (comparison.matched) {
+                if (policy.before > 0 && comparison.expected.equalItems() > 0) {
+                    equalPartsByEnd.put(startPosition + comparison.expected.equalItems(), new LocatedComparison(startPosition, comparison));
+                }
+            } else {
+                LocatedComparison difference = new LocatedComparison(startPosition, comparison);
+                LocatedComparison current;
+                do {
+                    current = firstDifference.get();
+                    if (current != null && current.differencePosition() <= difference.differencePosition()) {
+                        return;
+                    }
+                } while (!firstDifference.compareAndSet(current, difference));
+            }
+        }
+
+        private long firstDifferencePosition() {
+            LocatedComparison current = firstDifference.get();
+            return current != null ? current.differencePosition() : Long.MAX_VALUE;
+        }
+
+        private static void joinAll(List<? extends RecursiveAction> tasks) {
+            for (RecursiveAction task : tasks) {
+                task.join();
+            }
+        }
+    }
+
+    private static final class LocatedComparison {
+        final long position;
+        final Comparison comparison;
+
+        LocatedComparison(long position, Comparison comparison) {
+            this.position = position;
+            this.comparison = comparison;
+        }
+
+        long differencePosition() {
+            return position + comparison.expected.equalItems();
+        }
+    }
+
+    /**
+     * Like {@link Spliterators#iterator(Spliterator)}, but resolving a {@link PrimitiveIterator} for
+     * primitive spliterators, so their items can be compared without boxing.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Iterator<T> iteratorOf(Spliterator<T> spliterator) {
+        if (spliterator instanceof Spliterator.OfInt) {
+            return (Iterator<T>) Spliterators.iterator((Spliterator.OfInt) spliterator);
+        } else if (spliterator instanceof Spliterator.OfLong) {
+            return (Iterator<T>) Spliterators.iterator((Spliterator.OfLong) spliterator);
+        } else if (spliterator instanceof Spliterator.OfDouble) {
+            return (Iterator<T>) Spliterators.iterator((Spliterator.OfDouble) spliterator);
+        }
+        return Spliterators.iterator(spliterator);
+    }
+
+    private static boolean sizesDiffer(long expectedSize, long actualSize) {
+        return expectedSize >= 0 && actualSize >= 0 && expectedSize != actualSize;
+    }
+
+    /**
+     * Complete the comparison of prefixes of two Streams of differing known sizes, accounting for the items
+     * which were not produced.
+     */
+    private static Comparison sizeMismatch(Comparison prefixes, long expectedSize, long actualSize) {
+        prefixes.expected.sized(expectedSize);
+        prefixes.actual.sized(actualSize);
+        return new Comparison(prefixes.expected, prefixes.actual, false);
+    }
+
+    /**
+     * Like {@link #iteratorOf(Spliterator)}, producing no more than the given number of items.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Iterator<T> prefixOf(Spliterator<T> spliterator, long limit) {
+        if (spliterator instanceof Spliterator.OfInt) {
+            return (Iterator<T>) StreamSupport.intStream((Spliterator.OfInt) spliterator, false).limit(limit).iterator();
+        } else if (spliterator instanceof Spliterator.OfLong) {
+            return (Iterator<T>) StreamSupport.longStream((Spliterator.OfLong) spliterator, false).limit(limit).iterator();
+        } else if (spliterator instanceof Spliterator.OfDouble) {
+            return (Iterator<T>) StreamSupport.doubleStream((Spliterator.OfDouble) spliterator, false).limit(limit).iterator();
+        }
+        return StreamSupport.stream(spliterator, false).limit(limit).iterator();
+    }
+
+    private static <T> T[] prefixOf(T[] items, int limit) {
+        return Arrays.copyOf(items, Math.min(items.length, limit));
+    }
+
+    private static final class ConcatIterator<T> implements Iterator<T> {
+        private final Iterator<T> first;
+        private final Iterator<T> second;
+
+        ConcatIterator(Spliterator<T> first, Spliterator<T> second) {
+            this.first = Spliterators.iterator(first);
+            this.second = Spliterators.iterator(second);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return first.hasNext() || second.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return first.hasNext() ? first.next() : second.next();
+        }
+    }
+
+    private static abstract class BaseComparingStreamMatcher<E,T,S extends BaseStream<T,?>> extends TypeSafeMatcher<S> {
+        final CapturePolicy capturePolicy;
+        private Comparison comparison;
+
+        BaseComparingStreamMatcher(CapturePolicy capturePolicy) {
+            this.capturePolicy = capturePolicy;
+            this.comparison = Comparison.notYetCompared(capturePolicy);
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            comparison.expected.describe(description);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S item, Description description) {
+            comparison.actual.describe(description);
+        }
+
+        boolean compared(Comparison comparison) {
+            this.comparison = comparison;
+            return comparison.matched;
+        }
+    }
+
+    private static abstract class BaseStreamMatcher<T,S extends BaseStream<T,?>> extends BaseComparingStreamMatcher<T,T,S> {
+        BaseStreamMatcher(CapturePolicy capturePolicy) {
+            super(capturePolicy);
+        }
+
+        boolean remainingItemsEqual(Iterator<T> expectedIterator, Iterator<T> actualIterator) {
+            return compared(compareEqualItems(expectedIterator, actualIterator, capturePolicy));
+        }
+
+        /**
+         * Compare Streams of differing known sizes only as far as to describe them, parallel Streams of
+         * the same known size in parallel, and otherwise sequentially.
+         */
+        boolean streamsEqual(BaseStream<T,?> expected, BaseStream<T,?> actual) {
+            Spliterator<T> expectedSpliterator = expected.spliterator();
+            Spliterator<T> actualSpliterator = actual.spliterator();
+            long expectedSize = expectedSpliterator.getExactSizeIfKnown();
+            long actualSize = actualSpliterator.getExactSizeIfKnown();
+            if (sizesDiffer(expectedSize, actualSize)) {
+                return compared(sizeMismatch(
+                        compareEqualItems(prefixOf(expectedSpliterator, capturePolicy.before), prefixOf(actualSpliterator, capturePolicy.before), capturePolicy),
+                        expectedSize, actualSize));
+            }
+            if ((expected.isParallel() || actual.isParallel()) && ParallelComparison.applicable(expectedSpliterator, actualSpliterator)) {
+                return compared(ParallelComparison.compare(expectedSpliterator, actualSpliterator, capturePolicy));
+            }
+            return remainingItemsEqual(iteratorOf(expectedSpliterator), iteratorOf(actualSpliterator));
+        }
+
+        boolean itemsEqual(T[] expected, BaseStream<T,?> actual) {
+            Spliterator<T> actualSpliterator = actual.spliterator();
+            long actualSize = actualSpliterator.getExactSizeIfKnown();
+            if (sizesDiffer(expected.length, actualSize)) {
+                return compared(sizeMismatch(
+                        compareEqualItems(new ArrayIterator<>(prefixOf(expected, capturePolicy.before)), prefixOf(actualSpliterator, capturePolicy.before), capturePolicy),
+                        expected.length, actualSize));
+            }
+            return remainingItemsEqual(new ArrayIterator<>(expected), iteratorOf(actualSpliterator));
+        }
+    }
+
+    private static abstract class BaseMatcherStreamMatcher<T,S extends BaseStream<T,?>> extends BaseComparingStreamMatcher<Matcher<T>,T,S> {
+        BaseMatcherStreamMatcher(CapturePolicy capturePolicy) {
+            super(capturePolicy);
+        }
+
+        boolean remainingItemsMatch(Iterator<Matcher<T>> expectedIterator, Iterator<T> actualIterator) {
+            return compared(compareItems(expectedIterator, actualIterator, Matcher::matches, capturePolicy));
+        }
+
+        boolean itemsMatch(Matcher<T>[] expected, BaseStream<T,?> actual) {
+            Spliterator<T> actualSpliterator = actual.spliterator();
+            long actualSize = actualSpliterator.getExactSizeIfKnown();
+            if (sizesDiffer(expected.length, actualSize)) {
+                return compared(sizeMismatch(
+                        compareItems(new ArrayIterator<>(prefixOf(expected, capturePolicy.before)), prefixOf(actualSpliterator, capturePolicy.before), Matcher::matches, capturePolicy),
+                        expected.length, actualSize));
+            }
+            return remainingItemsMatch(new ArrayIterator<>(expected), iteratorOf(actualSpliterator));
+        }
+    }
+
+    private static void allMatchMismatch(Description mismatchDescription, long position, Object nonMatch) {
+        mismatchDescription.appendText("Item ").appendText(Long.toString(position)).appendText(" failed to match: ").appendValue(nonMatch);
+    }
+
+    private static abstract class BaseAllMatches<T,S extends BaseStream<T,S>> extends TypeSafeMatcher<S> {
+        private final Matcher<T> matcher;
+        private FirstFailure<T> nonMatching;
+
+        BaseAllMatches(Matcher<T> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            nonMatching = FirstFailure.find(actual.spliterator(), actual.isParallel(), matcher::matches).orElse(null);
+            return nonMatching == null;
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            if (nonMatching == null) {
+                mismatchDescription.appendText("all items matched");
+                return;
+            }
+            allMatchMismatch(mismatchDescription, nonMatching.getPosition(), nonMatching.getItem());
+        }
+    }
+
+    private static abstract class StreamAllMatches<T> extends BaseAllMatches<T,Stream<T>> {
+        StreamAllMatches(Matcher<T> matcher) {
+            super(matcher);
+        }
+    }
+
+    private static abstract class IntStreamAllMatches extends BaseAllMatches<Integer,IntStream> {
+        IntStreamAllMatches(Matcher<Integer> matcher) {
+            super(matcher);
+        }
+    }
+
+    private static abstract class LongStreamAllMatches extends BaseAllMatches<Long,LongStream> {
+        LongStreamAllMatches(Matcher<Long> matcher) {
+            super(matcher);
+        }
+    }
+
+    private static abstract class DoubleStreamAllMatches extends BaseAllMatches<Double,DoubleStream> {
+        DoubleStreamAllMatches(Matcher<Double> matcher) {
+            super(matcher);
+        }
+    }
+
+    private static final class SampledAllMatches<T,S extends BaseStream<T,S>> extends TypeSafeMatcher<S> {
+        private final Matcher<T> matcher;
+        private final Sampling sampling;
+        private long examined;
+        private long sampled;
+        private long failingPosition;
+        private Object failingItem;
+
+        SampledAllMatches(Matcher<T> matcher, Sampling sampling) {
+            this.matcher = matcher;
+            this.sampling = sampling;
+        }
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            Iterator<T> items = actual.iterator();
+            SplittableRandom random = new SplittableRandom(sampling.seed);
+            examined = 0;
+            sampled = 0;
+            failingPosition = -1;
+            if (sampling.size >= 0) {
+                matchReservoir(items, random);
+            } else {
+                matchBernoulli(items, random);
+            }
+            return failingPosition < 0;
+        }
+
+        private void matchBernoulli(Iterator<T> items, SplittableRandom random) {
+            double logNotSampled = Math.log1p(-sampling.rate);
+            while (true) {
+                examined += skip(items, (long) Math.floor(Math.log(1 - random.nextDouble()) / logNotSampled));
+                if (!items.hasNext()) {
+                    return;
+                }
+                T item = items.next();
+                sampled++;
+                if (!matcher.matches(item)) {
+                    failingPosition = examined++;
+                    failingItem = item;
+                    return;
+                }
+                examined++;
+            }
+        }
+
+        // Algorithm L (Li, 1994), which skips the items not to sample instead of drawing a random number for each
+        private void matchReservoir(Iterator<T> items, SplittableRandom random) {
+            int size = sampling.size;
+            Object[] reservoir = new Object[size];
+            long[] positions = new long[size];
+            int filled = 0;
+            while (filled < size && items.hasNext()) {
+                reservoir[filled] = items.next();
+                positions[filled++] = examined++;
+            }
+            if (filled == size && size > 0) {
+                double w = Math.exp(Math.log(1 - random.nextDouble()) / size);
+                while (true) {
+                    examined += skip(items, (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log1p(-w)));
+                    if (!items.hasNext()) {
+                        break;
+                    }
+                    int slot = random.nextInt(size);
+                    reservoir[slot] = items.next();
+                    positions[slot] = examined++;
+                    w *= Math.exp(Math.log(1 - random.nextDouble()) / size);
+                }
+            }
+            sampled = filled;
+            for (int slot = 0; slot < filled; slot++) {
+                @SuppressWarnings("unchecked")
+                T item = (T) reservoir[slot];
+                if ((failingPosition < 0 || positions[slot] < failingPosition) && !matcher.matches(item)) {
+                    failingPosition = positions[slot];
+                    failingItem = item;
+                }
+            }
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("All to match ").appendValue(matcher).appendText(", checking ");
+            sampling.describeTo(description);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            allMatchMismatch(mismatchDescription, failingPosition, failingItem);
+            mismatchDescription.appendText(", having sampled ").appendText(Long.toString(sampled))
+                    .appendText(" of ").appendText(Long.toString(examined)).appendText(" items with seed ")
+                    .appendText(Long.toString(sampling.seed));
+        }
+    }
+
+    /**
+     * @return the number of items skipped, less than requested if the items are exhausted
+     */
+    private static long skip(Iterator<?> items, long count) {
+        long skipped = 0;
+        if (items instanceof PrimitiveIterator.OfInt) {
+            PrimitiveIterator.OfInt ints = (PrimitiveIterator.OfInt) items;
+            for (; skipped < count && ints.hasNext(); skipped++) {
+                ints.nextInt();
+            }
+        } else if (items instanceof PrimitiveIterator.OfLong) {
+            PrimitiveIterator.OfLong longs = (PrimitiveIterator.OfLong) items;
+            for (; skipped < count && longs.hasNext(); skipped++) {
+                longs.nextLong();
+            }
+        } else if (items instanceof PrimitiveIterator.OfDouble) {
+            PrimitiveIterator.OfDouble doubles = (PrimitiveIterator.OfDouble) items;
+            for (; skipped < count && doubles.hasNext(); skipped++) {
+                doubles.nextDouble();
+            }
+        } else {
+            for (; skipped < count && items.hasNext(); skipped++) {
+                items.next();
+            }
+        }
+        return skipped;
+    }
+
+    private static final class BudgetedMatcher<S extends BaseStream<?, ?>> extends TypeSafeMatcher<S> {
+        private final Budget budget;
+        private final Matcher<? super S> matcher;
+        private S budgeted;
+        private BudgetTracker exhausted;
+
+        BudgetedMatcher(Budget budget, Matcher<? super S> matcher) {
+            this.budget = budget;
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            BudgetTracker tracker = new BudgetTracker(budget);
+            budgeted = budgeted(actual, tracker);
+            exhausted = null;
+            try {
+                return matcher.matches(budgeted);
+            } catch (BudgetExhausted e) {
+                exhausted = tracker;
+                return false;
+            }
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendDescriptionOf(matcher).appendText(", ");
+            budget.describeTo(description);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            if (exhausted == null) {
+                matcher.describeMismatch(budgeted, mismatchDescription);
+                return;
+            }
+            mismatchDescription
+                    .appendText("budget exhausted after ").appendText(Long.toString(exhausted.consumed)).appendText(" elements / ")
+                    .appendText(Long.toString(TimeUnit.NANOSECONDS.toMillis(exhausted.elapsedNanos))).appendText(" ms, having yielded ")
+                    .appendValueList("Stream of [", ",", exhausted.consumed > exhausted.prefix.size() ? ",...]" : "]", exhausted.prefix);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends BaseStream<?, ?>> S budgeted(S actual, BudgetTracker tracker) {
+        BaseStream<?, ?> budgeted;
+        if (actual instanceof IntStream) {
+            budgeted = StreamSupport.intStream(new BudgetedIntSpliterator(((IntStream) actual).spliterator(), tracker), actual.isParallel());
+        } else if (actual instanceof LongStream) {
+            budgeted = StreamSupport.longStream(new BudgetedLongSpliterator(((LongStream) actual).spliterator(), tracker), actual.isParallel());
+        } else if (actual instanceof DoubleStream) {
+            budgeted = StreamSupport.doubleStream(new BudgetedDoubleSpliterator(((DoubleStream) actual).spliterator(), tracker), actual.isParallel());
+        } else {
+            budgeted = StreamSupport.stream(new BudgetedSpliterator<>(((Stream<?>) actual).spliterator(), tracker), actual.isParallel());
+        }
+        return (S) budgeted.onClose(actual::close);
+    }
+
+    private static final class BudgetExhausted extends RuntimeException {
+        BudgetExhausted() {
+            super("Budget exhausted", null, false, false);
+        }
+    }
+
+    private static final class BudgetTracker {
+        private static final int PREFIX = 10;
+        private static final int CLOCK_INTERVAL_MASK = 1024 - 1;
+
+        private final Budget budget;
+        private final long start = System.nanoTime();
+        private final List<Object> prefix = new ArrayList<>();
+        private long consumed = 0;
+        private long elapsedNanos = 0;
+
+        BudgetTracker(Budget budget) {
+            this.budget = budget;
+        }
+
+        boolean capturing() {
+            return consumed < PREFIX;
+        }
+
+        void consumed(Object item) {
+            consumed();
+            prefix.add(item);
+        }
+
+        void consumed() {
+            if (consumed == budget.maxElements) {
+                exhausted();
+            }
+            consumed++;
+            if ((consumed & CLOCK_INTERVAL_MASK) == 0) {
+                checkTime();
+            }
+        }
+
+        void ended() {
+            checkTime();
+        }
+
+        private void checkTime() {
+            if (budget.maxNanos != Long.MAX_VALUE && System.nanoTime() - start > budget.maxNanos) {
+                exhausted();
+            }
+        }
+
+        private void exhausted() {
+            elapsedNanos = System.nanoTime() - start;
+            throw new BudgetExhausted();
+        }
+    }
+
+    private static abstract class BaseBudgetedSpliterator<T, P extends Spliterator<T>> implements Spliterator<T> {
+        final P source;
+        final BudgetTracker tracker;
+
+        BaseBudgetedSpliterator(P source, BudgetTracker tracker) {
+            this.source = source;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public P trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    private static final class BudgetedSpliterator<T> extends BaseBudgetedSpliterator<T, Spliterator<T>> {
+        BudgetedSpliterator(Spliterator<T> source, BudgetTracker tracker) {
+            super(source, tracker);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            boolean advanced = source.tryAdvance(item -> {
+                if (tracker.capturing()) {
+                    tracker.consumed(item);
+                } else {
+                    tracker.consumed();
+                }
+                action.accept(item);
+            });
+            if (!advanced) {
+                tracker.ended();
+            }
+            return advanced;
+        }
+    }
+
+    private static final class BudgetedIntSpliterator extends BaseBudgetedSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+        BudgetedIntSpliterator(Spliterator.OfInt source, BudgetTracker tracker) {
+            super(source, tracker);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            boolean advanced = source.tryAdvance((int item) -> {
+                if (tracker.capturing()) {
+                    tracker.consumed(item);
+                } else {
+                    tracker.consumed();
+                }
+                action.accept(item);
+            });
+            if (!advanced) {
+                tracker.ended();
+            }
+            return advanced;
+        }
+    }
+
+    private static final class BudgetedLongSpliterator extends BaseBudgetedSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+        BudgetedLongSpliterator(Spliterator.OfLong source, BudgetTracker tracker) {
+            super(source, tracker);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            boolean advanced = source.tryAdvance((long item) -> {
+                if (tracker.capturing()) {
+                    tracker.consumed(item);
+                } else {
+                    tracker.consumed();
+                }
+                action.accept(item);
+            });
+            if (!advanced) {
+                tracker.ended();
+            }
+            return advanced;
+        }
+    }
+
+    private static final class BudgetedDoubleSpliterator extends BaseBudgetedSpliterator<Double, Spliterator.OfDouble> implements Spliterator.OfDouble {
+        BudgetedDoubleSpliterator(Spliterator.OfDouble source, BudgetTracker tracker) {
+            super(source, tracker);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            boolean advanced = source.tryAdvance((double item) -> {
+                if (tracker.capturing()) {
+                    tracker.consumed(item);
+                } else {
+                    tracker.consumed();
+                }
+                action.accept(item);
+            });
+            if (!advanced) {
+                tracker.ended();
+            }
+            return advanced;
+        }
+    }
+
+    private static final int ANY_MATCH_WINDOW = 10;
+
+    private static String anyMatchMismatchStart(Description mismatchDescription, long evicted, int retained) {
+        if (evicted == 0) {
+            mismatchDescription.appendText("None of these items matched: ");
+            return "[";
+        }
+        mismatchDescription
+                .appendText("None of ").appendText(Long.toString(evicted + retained))
+                .appendText(" items matched, the last ").appendText(Integer.toString(retained)).appendText(" being: ");
+        return "[...,";
+    }
+
+    private static void anyMatchMismatch(Description mismatchDescription, RingBuffer<?> accumulator) {
+        String start = anyMatchMismatchStart(mismatchDescription, accumulator.evicted(), accumulator.size());
+        mismatchDescription.appendValueList(start, ",", "]", accumulator);
+    }
+
+    private static void anyMatchMismatch(Description mismatchDescription, IntRingBuffer accumulator) {
+        String start = anyMatchMismatchStart(mismatchDescription, accumulator.evicted(), accumulator.size());
+        accumulator.appendValueList(mismatchDescription, start, ",", "]");
+    }
+
+    private static void anyMatchMismatch(Description mismatchDescription, LongRingBuffer accumulator) {
+        String start = anyMatchMismatchStart(mismatchDescription, accumulator.evicted(), accumulator.size());
+        accumulator.appendValueList(mismatchDescription, start, ",", "]");
+    }
+
+    private static void anyMatchMismatch(Description mismatchDescription, DoubleRingBuffer accumulator) {
+        String start = anyMatchMismatchStart(mismatchDescription, accumulator.evicted(), accumulator.size());
+        accumulator.appendValueList(mismatchDescription, start, ",", "]");
+    }
+
+    private static abstract class StreamAnyMatches<T> extends TypeSafeMatcher<Stream<T>> {
+        RingBuffer<T> accumulator = new RingBuffer<>(ANY_MATCH_WINDOW);
+        final Matcher<T> matcher;
+
+        StreamAnyMatches(Matcher<T> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected boolean matchesSafely(Stream<T> actual) {
+            accumulator = new RingBuffer<>(ANY_MATCH_WINDOW);
+            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        }
+
+        @Override
+        protected void describeMismatchSafely(Stream<T> actual, Description mismatchDescription) {
+            anyMatchMismatch(mismatchDescription, accumulator);
+        }
+    }
+
+    private static abstract class LongStreamAnyMatches extends TypeSafeMatcher<LongStream> {
+        LongRingBuffer accumulator = new LongRingBuffer(ANY_MATCH_WINDOW);
+        final Matcher<Long> matcher;
+
+        LongStreamAnyMatches(Matcher<Long> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected boolean matchesSafely(LongStream actual) {
+            accumulator = new LongRingBuffer(ANY_MATCH_WINDOW);
+            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        }
+
+        @Override
+        protected void describeMismatchSafely(LongStream actual, Description mismatchDescription) {
+            anyMatchMismatch(mismatchDescription, accumulator);
+        }
+    }
+
+    private static abstract class IntStreamAnyMatches extends TypeSafeMatcher<IntStream> {
+        IntRingBuffer accumulator = new IntRingBuffer(ANY_MATCH_WINDOW);
+        final Matcher<Integer> matcher;
+
+        IntStreamAnyMatches(Matcher<Integer> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected boolean matchesSafely(IntStream actual) {
+            accumulator = new IntRingBuffer(ANY_MATCH_WINDOW);
+            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        }
+
+        @Override
+        protected void describeMismatchSafely(IntStream actual, Description mismatchDescription) {
+            anyMatchMismatch(mismatchDescription, accumulator);
+        }
+    }
+
+    private static abstract class DoubleStreamAnyMatches extends TypeSafeMatcher<DoubleStream> {
+        DoubleRingBuffer accumulator = new DoubleRingBuffer(ANY_MATCH_WINDOW);
+        final Matcher<Double> matcher;
+
+        DoubleStreamAnyMatches(Matcher<Double> matcher) {
             this.matcher = matcher;
         }
 
         @Override
-        protected boolean matchesSafely(Stream<T> actual) {
-            return actual
-                    .peek(i -> {nonMatching = i; positionNonMatching++;})
-                    .allMatch(matcher::matches);
+        protected boolean matchesSafely(DoubleStream actual) {
+            accumulator = new DoubleRingBuffer(ANY_MATCH_WINDOW);
+            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        }
+
+        @Override
+        protected void describeMismatchSafely(DoubleStream actual, Description mismatchDescription) {
+            anyMatchMismatch(mismatchDescription, accumulator);
         }
+    }
 
-        @Override
-        protected void describeMismatchSafely(Stream<T> actual, Description mismatchDescription) {
-            allMatchMismatch(mismatchDescription, positionNonMatching, nonMatching);
+
+    private static final class InAnyOrder {
+        private static final int PREVIEW = 10;
+
+        final List<Object> expected = new ArrayList<>();
+        private final List<Object> unexpected = new ArrayList<>();
+        private final List<Object> missing = new ArrayList<>();
+        private long expectedCount = 0;
+        private long unexpectedCount = 0;
+        private long missingCount = 0;
+
+        /**
+         * Count an expected item.
+         *
+         * @return whether the item should be added to the {@link #expected} preview
+         */
+        boolean expecting() {
+            return expectedCount++ < PREVIEW;
+        }
+
+        void unexpected(Object item, long count) {
+            unexpectedCount += count;
+            preview(unexpected, item, count);
+        }
+
+        void missing(Object item, long count) {
+            missingCount += count;
+            preview(missing, item, count);
+        }
+
+        boolean matched() {
+            return unexpectedCount == 0 && missingCount == 0;
+        }
+
+        void describeExpected(Description description) {
+            description.appendText("Stream of ");
+            describeItems(description, expected, expectedCount);
+            description.appendText(" in any order");
+        }
+
+        void describeMismatch(Description description) {
+            if (unexpectedCount > 0) {
+                description.appendText("yielded unexpected ");
+                describeItems(description, unexpected, unexpectedCount);
+            }
+            if (unexpectedCount > 0 && missingCount > 0) {
+                description.appendText(" and ");
+            }
+            if (missingCount > 0) {
+                description.appendText("was missing ");
+                describeItems(description, missing, missingCount);
+            }
+        }
+
+        private static void preview(List<Object> items, Object item, long count) {
+            for (long i = 0; i < count && items.size() < PREVIEW; i++) {
+                items.add(item);
+            }
+        }
+
+        private static void describeItems(Description description, List<Object> items, long count) {
+            boolean truncated = count > items.size();
+            description.appendValueList("[", ",", truncated ? ",...]" : "]", items);
+            if (truncated) {
+                description.appendText(" (").appendText(Long.toString(count)).appendText(" items in total)");
+            }
         }
     }
 
-    private static abstract class IntStreamAllMatches extends TypeSafeMatcher<IntStream> {
-        private int nonMatching;
-        private long positionNonMatching = -1L;
-        private final Matcher<Integer> matcher;
+    private static abstract class InAnyOrderMatcher<S> extends TypeSafeMatcher<S> {
+        private InAnyOrder result = new InAnyOrder();
 
-        IntStreamAllMatches(Matcher<Integer> matcher) {
-            this.matcher = matcher;
+        abstract InAnyOrder compare(S actual);
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            result = compare(actual);
+            return result.matched();
         }
 
         @Override
-        protected boolean matchesSafely(IntStream actual) {
-            return actual
-                    .peek(i -> {nonMatching = i; positionNonMatching++;})
-                    .allMatch(matcher::matches);
+        public void describeTo(Description description) {
+            result.describeExpected(description);
         }
 
         @Override
-        protected void describeMismatchSafely(IntStream actual, Description mismatchDescription) {
-            allMatchMismatch(mismatchDescription, positionNonMatching, nonMatching);
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            result.describeMismatch(mismatchDescription);
         }
     }
 
-    private static abstract class LongStreamAllMatches extends TypeSafeMatcher<LongStream> {
-        private long nonMatching;
-        private long positionNonMatching = -1L;
-        private final Matcher<Long> matcher;
+    private static <T> InAnyOrder inAnyOrder(BaseStream<T,?> expected, BaseStream<T,?> actual) {
+        if (expected instanceof IntStream && actual instanceof IntStream) {
+            return intsInAnyOrder(((IntStream) expected).iterator(), (IntStream) actual);
+        } else if (expected instanceof LongStream && actual instanceof LongStream) {
+            return longsInAnyOrder(((LongStream) expected).iterator(), (LongStream) actual);
+        } else if (expected instanceof DoubleStream && actual instanceof DoubleStream) {
+            return doublesInAnyOrder(((DoubleStream) expected).iterator(), (DoubleStream) actual);
+        }
+        return itemsInAnyOrder(expected.iterator(), actual);
+    }
 
-        LongStreamAllMatches(Matcher<Long> matcher) {
+    /**
+     * Items of parallel Streams are counted concurrently into separate maps which are merged, and only
+     * then compared with the expected counts.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> InAnyOrder itemsInAnyOrder(Iterator<T> expectedItems, BaseStream<T,?> actual) {
+        InAnyOrder result = new InAnyOrder();
+        CountMap<T> counts = new CountMap<>();
+        expectedItems.forEachRemaining(item -> {
+            counts.add(item);
+            if (result.expecting()) {
+                result.expected.add(item);
+            }
+        });
+        if (actual.isParallel() && actual instanceof Stream) {
+            CountMap<T> actualCounts = ((Stream<T>) actual).collect(CountMap::new, CountMap::add, CountMap::addAll);
+            actualCounts.forEach((item, count) -> {
+                long surplus = counts.remove(item, count);
+                if (surplus > 0) {
+                    result.unexpected(item, surplus);
+                }
+            });
+        } else {
+            actual.iterator().forEachRemaining(item -> {
+                if (counts.remove(item, 1) > 0) {
+                    result.unexpected(item, 1);
+                }
+            });
+        }
+        counts.forEach(result::missing);
+        return result;
+    }
+
+    /**
+     * Ints are counted as longs, which represent every int exactly, and narrowed back to be described.
+     */
+    private static InAnyOrder intsInAnyOrder(PrimitiveIterator.OfInt expectedItems, IntStream actual) {
+        InAnyOrder result = new InAnyOrder();
+        LongCountMap counts = new LongCountMap();
+        expectedItems.forEachRemaining((int item) -> {
+            counts.add(item);
+            if (result.expecting()) {
+                result.expected.add(item);
+            }
+        });
+        if (actual.isParallel()) {
+            LongCountMap actualCounts = actual.collect(LongCountMap::new, LongCountMap::add, LongCountMap::addAll);
+            actualCounts.forEach((item, count) -> {
+                long surplus = counts.remove(item, count);
+                if (surplus > 0) {
+                    result.unexpected((int) item, surplus);
+                }
+            });
+        } else {
+            actual.forEach(item -> {
+                if (counts.remove(item, 1) > 0) {
+                    result.unexpected(item, 1);
+                }
+            });
+        }
+        counts.forEach((item, count) -> result.missing((int) item, count));
+        return result;
+    }
+
+    private static InAnyOrder longsInAnyOrder(PrimitiveIterator.OfLong expectedItems, LongStream actual) {
+        InAnyOrder result = new InAnyOrder();
+        LongCountMap counts = new LongCountMap();
+        expectedItems.forEachRemaining((long item) -> {
+            counts.add(item);
+            if (result.expecting()) {
+                result.expected.add(item);
+            }
+        });
+        if (actual.isParallel()) {
+            LongCountMap actualCounts = actual.collect(LongCountMap::new, LongCountMap::add, LongCountMap::addAll);
+            actualCounts.forEach((item, count) -> {
+                long surplus = counts.remove(item, count);
+                if (surplus > 0) {
+                    result.unexpected(item, surplus);
+                }
+            });
+        } else {
+            actual.forEach(item -> {
+                if (counts.remove(item, 1) > 0) {
+                    result.unexpected(item, 1);
+                }
+            });
+        }
+        counts.forEach(result::missing);
+        return result;
+    }
+
+    /**
+     * Doubles are counted by their {@link Double#doubleToLongBits(double) bits}, so they compare
+     * like {@link Double#equals(Object)}.
+     */
+    private static InAnyOrder doublesInAnyOrder(PrimitiveIterator.OfDouble expectedItems, DoubleStream actual) {
+        InAnyOrder result = new InAnyOrder();
+        LongCountMap counts = new LongCountMap();
+        expectedItems.forEachRemaining((double item) -> {
+            counts.add(Double.doubleToLongBits(item));
+            if (result.expecting()) {
+                result.expected.add(item);
+            }
+        });
+        if (actual.isParallel()) {
+            LongCountMap actualCounts = actual.collect(LongCountMap::new, (map, item) -> map.add(Double.doubleToLongBits(item)), LongCountMap::addAll);
+            actualCounts.forEach((bits, count) -> {
+                long surplus = counts.remove(bits, count);
+                if (surplus > 0) {
+                    result.unexpected(Double.longBitsToDouble(bits), surplus);
+                }
+            });
+        } else {
+            actual.forEach(item -> {
+                if (counts.remove(Double.doubleToLongBits(item), 1) > 0) {
+                    result.unexpected(item, 1);
+                }
+            });
+        }
+        counts.forEach((bits, count) -> result.missing(Double.longBitsToDouble(bits), count));
+        return result;
+    }
+
+    private static abstract class SummaryMatcher<S, R> extends TypeSafeMatcher<S> {
+        private final Matcher<? super R> matcher;
+        private R summary;
+
+        SummaryMatcher(Matcher<? super R> matcher) {
             this.matcher = matcher;
         }
 
+        abstract R summarize(S actual);
+
         @Override
-        protected boolean matchesSafely(LongStream actual) {
-            return actual
-                    .peek(i -> {nonMatching = i; positionNonMatching++;})
-                    .allMatch(matcher::matches);
+        protected boolean matchesSafely(S actual) {
+            summary = summarize(actual);
+            return matcher.matches(summary);
         }
 
         @Override
-        protected void describeMismatchSafely(LongStream actual, Description mismatchDescription) {
-            allMatchMismatch(mismatchDescription, positionNonMatching, nonMatching);
+        public void describeTo(Description description) {
+            description.appendText("A Stream summarized by ").appendDescriptionOf(matcher);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription.appendText("was summarized as ").appendText(summary.toString()).appendText(", which ");
+            matcher.describeMismatch(summary, mismatchDescription);
         }
     }
 
-    private static abstract class DoubleStreamAllMatches extends TypeSafeMatcher<DoubleStream> {
-        private double nonMatching;
-        private long positionNonMatching = -1L;
-        private final Matcher<Double> matcher;
+    private static final class QuantileMatcher extends TypeSafeMatcher<DoubleStream> {
+        private final double q;
+        private final boolean exact;
+        private final Matcher<? super Double> matcher;
+        private long count;
+        private double quantile;
+        private double rankError;
 
-        DoubleStreamAllMatches(Matcher<Double> matcher) {
+        QuantileMatcher(double q, boolean exact, Matcher<? super Double> matcher) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("The quantile must be between 0 and 1, was " + q);
+            }
+            this.q = q;
+            this.exact = exact;
             this.matcher = matcher;
         }
 
         @Override
         protected boolean matchesSafely(DoubleStream actual) {
-            return actual
-                    .peek(i -> {nonMatching = i; positionNonMatching++;})
-                    .allMatch(matcher::matches);
+            if (exact) {
+                double[] items = actual.toArray();
+                Arrays.sort(items);
+                count = items.length;
+                rankError = 0;
+                if (count > 0) {
+                    quantile = items[(int) Math.max(0, (long) Math.ceil(q * count) - 1)];
+                }
+            } else {
+                QuantileSketch sketch = actual.collect(QuantileSketch::new, QuantileSketch::add, QuantileSketch::merge);
+                count = sketch.count();
+                rankError = sketch.rankError();
+                if (count > 0) {
+                    quantile = sketch.quantile(q);
+                }
+            }
+            return count > 0 && matcher.matches(quantile);
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("A Stream with a ").appendText(Double.toString(q)).appendText(" quantile matching ")
+                    .appendDescriptionOf(matcher);
         }
 
         @Override
         protected void describeMismatchSafely(DoubleStream actual, Description mismatchDescription) {
-            allMatchMismatch(mismatchDescription, positionNonMatching, nonMatching);
+            if (count == 0) {
+                mismatchDescription.appendText("was an empty Stream");
+                return;
+            }
+            mismatchDescription.appendText("the ").appendText(Double.toString(q)).appendText(" quantile of ")
+                    .appendText(Long.toString(count)).appendText(count == 1 ? " item " : " items ");
+            if (rankError == 0) {
+                mismatchDescription.appendText("was ").appendValue(quantile);
+            } else {
+                mismatchDescription.appendText("was estimated as ").appendValue(quantile)
+                        .appendText(", within a rank of ").appendText(String.format(Locale.ROOT, "%.3f%%", rankError * 100))
+                        .appendText(" of the items");
+            }
         }
     }
 
-    private static void anyMatchMismatch(Description mismatchDescription, List<?> accumulator) {
-        mismatchDescription
-                .appendText("None of these items matched: ")
-                .appendValueList("[", ",", "]", accumulator);
+    @FunctionalInterface
+    private interface IndexEquality {
+        boolean equal(int i, int j);
     }
 
-    private static abstract class StreamAnyMatches<T> extends TypeSafeMatcher<Stream<T>> {
-        final List<T> accumulator = new LinkedList<>();
-        final Matcher<T> matcher;
+    /**
+     * The Knuth-Morris-Pratt prefix table of a pattern: for each prefix of the pattern, the length of its longest
+     * proper prefix which is also a suffix of it.
+     */
+    private static int[] prefixTable(int length, IndexEquality patternEquality) {
+        int[] prefixes = new int[length];
+        int matched = 0;
+        for (int i = 1; i < length; i++) {
+            while (matched > 0 && !patternEquality.equal(i, matched)) {
+                matched = prefixes[matched - 1];
+            }
+            if (patternEquality.equal(i, matched)) {
+                matched++;
+            }
+            prefixes[i] = matched;
+        }
+        return prefixes;
+    }
 
-        StreamAnyMatches(Matcher<T> matcher) {
-            this.matcher = matcher;
+    private static abstract class SequenceMatcher<S> extends TypeSafeMatcher<S> {
+        private final List<?> expected;
+        private long consumed;
+        private int longestMatch;
+        private long longestMatchEnd;
+
+        SequenceMatcher(List<?> expected) {
+            this.expected = expected;
+        }
+
+        abstract void search(S actual);
+
+        void advanced(int matched) {
+            if (matched > longestMatch) {
+                longestMatch = matched;
+                longestMatchEnd = consumed;
+            }
+            consumed++;
         }
 
         @Override
-        protected boolean matchesSafely(Stream<T> actual) {
-            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        protected boolean matchesSafely(S actual) {
+            consumed = 0;
+            longestMatch = 0;
+            search(actual);
+            return longestMatch == expected.size();
         }
 
         @Override
-        protected void describeMismatchSafely(Stream<T> actual, Description mismatchDescription) {
-            anyMatchMismatch(mismatchDescription,accumulator);
+        public void describeTo(Description description) {
+            description.appendValueList("A Stream including the sequence [", ",", "]", expected);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription.appendText("the sequence was not found in ").appendText(Long.toString(consumed))
+                    .appendText(consumed == 1 ? " item" : " items");
+            if (longestMatch > 0) {
+                mismatchDescription.appendText(", the longest partial match being the first ").appendText(Integer.toString(longestMatch))
+                        .appendText(" expected items, ending at item ").appendText(Long.toString(longestMatchEnd));
+            }
         }
     }
 
-    private static abstract class LongStreamAnyMatches extends TypeSafeMatcher<LongStream> {
-        final List<Long> accumulator = new LinkedList<>();
-        final Matcher<Long> matcher;
+    private static abstract class WindowMatcher<S, W> extends TypeSafeMatcher<S> {
+        final int size;
+        private final int step;
+        final Matcher<? super W> matcher;
+        private long failingStart;
+        private W failingWindow;
 
-        LongStreamAnyMatches(Matcher<Long> matcher) {
+        WindowMatcher(int size, int step, Matcher<? super W> matcher) {
+            if (size < 1 || step < 1) {
+                throw new IllegalArgumentException("Window size and step must be positive, got size=" + size + ", step=" + step);
+            }
+            this.size = size;
+            this.step = step;
             this.matcher = matcher;
         }
 
+        /**
+         * @return whether a window failed to match, after having {@linkplain #failed(long, Object) recorded} it
+         */
+        abstract boolean findFailingWindow(S actual);
+
+        boolean isWindowEnd(long position) {
+            return position + 1 >= size && (position + 1 - size) % step == 0;
+        }
+
+        boolean failed(long start, W window) {
+            failingStart = start;
+            failingWindow = window;
+            return true;
+        }
+
         @Override
-        protected boolean matchesSafely(LongStream actual) {
-            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        protected boolean matchesSafely(S actual) {
+            return !findFailingWindow(actual);
         }
 
         @Override
-        protected void describeMismatchSafely(LongStream actual, Description mismatchDescription) {
-            anyMatchMismatch(mismatchDescription, accumulator);
+        public void describeTo(Description description) {
+            description.appendText("Every window of ").appendText(Integer.toString(size)).appendText(" consecutive items");
+            if (step == size) {
+                description.appendText(", not overlapping,");
+            } else if (step > 1) {
+                description.appendText(", starting every ").appendText(Integer.toString(step)).appendText(" items,");
+            }
+            description.appendText(" to match ").appendDescriptionOf(matcher);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription.appendText("the window of items ").appendText(Long.toString(failingStart))
+                    .appendText(" to ").appendText(Long.toString(failingStart + size - 1))
+                    .appendText(", ").appendText(failingWindow.toString()).appendText(", ");
+            matcher.describeMismatch(failingWindow, mismatchDescription);
         }
     }
 
-    private static abstract class IntStreamAnyMatches extends TypeSafeMatcher<IntStream> {
-        final List<Integer> accumulator = new LinkedList<>();
-        final Matcher<Integer> matcher;
+    private static final class RingBufferList<T> extends AbstractList<T> implements RandomAccess {
+        private final RingBuffer<T> buffer;
 
-        IntStreamAnyMatches(Matcher<Integer> matcher) {
+        RingBufferList(RingBuffer<T> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public T get(int index) {
+            return buffer.get(index);
+        }
+
+        @Override
+        public int size() {
+            return buffer.size();
+        }
+    }
+
+    private static final class Duplicate {
+        final long earlierPosition;
+        final long position;
+        final Object item;
+
+        Duplicate(long earlierPosition, long position, Object item) {
+            this.earlierPosition = earlierPosition;
+            this.position = position;
+            this.item = item;
+        }
+    }
+
+    private static abstract class DistinctMatcher<S> extends TypeSafeMatcher<S> {
+        private Duplicate duplicate;
+
+        abstract Duplicate findDuplicate(S actual);
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            duplicate = findDuplicate(actual);
+            return duplicate == null;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("A Stream of distinct items");
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription
+                    .appendText("Items ").appendText(Long.toString(duplicate.earlierPosition))
+                    .appendText(" and ").appendText(Long.toString(duplicate.position))
+                    .appendText(" were both ").appendValue(duplicate.item);
+        }
+    }
+
+    private static final class ConsecutivePair {
+        final long position;
+        final Object previous;
+        final Object item;
+        final Object relation;
+
+        ConsecutivePair(long position, Object previous, Object item) {
+            this(position, previous, item, null);
+        }
+
+        ConsecutivePair(long position, Object previous, Object item, Object relation) {
+            this.position = position;
+            this.previous = previous;
+            this.item = item;
+            this.relation = relation;
+        }
+    }
+
+    private static final class CountMatcher<S extends BaseStream<?, ?>> extends TypeSafeMatcher<S> {
+        private final Matcher<? super Long> matcher;
+        private final long limit;
+        private final String bound;
+        private long count;
+        private boolean complete;
+
+        CountMatcher(Matcher<? super Long> matcher, long limit, String bound) {
             this.matcher = matcher;
+            this.limit = limit;
+            this.bound = bound;
         }
 
         @Override
-        protected boolean matchesSafely(IntStream actual) {
-            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        protected boolean matchesSafely(S actual) {
+            Spliterator<?> items = actual.spliterator();
+            count = items.getExactSizeIfKnown();
+            complete = count >= 0;
+            if (!complete) {
+                ItemCounter counter = new ItemCounter();
+                complete = counter.count(items, limit);
+                count = counter.count;
+            }
+            return matcher.matches(count);
         }
 
         @Override
-        protected void describeMismatchSafely(IntStream actual, Description mismatchDescription) {
-            anyMatchMismatch(mismatchDescription, accumulator);
+        public void describeTo(Description description) {
+            if (bound != null) {
+                description.appendText("A Stream yielding ").appendText(bound);
+            } else {
+                description.appendText("A Stream yielding a number of items matching ").appendDescriptionOf(matcher);
+            }
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription
+                    .appendText(complete ? "yielded " : "yielded at least ")
+                    .appendText(Long.toString(count)).appendText(count == 1 ? " item" : " items");
         }
     }
 
-    private static abstract class DoubleStreamAnyMatches extends TypeSafeMatcher<DoubleStream> {
-        final List<Double> accumulator = new LinkedList<>();
-        final Matcher<Double> matcher;
+    private static final class ItemCounter implements Consumer<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+        long count = 0;
 
-        DoubleStreamAnyMatches(Matcher<Double> matcher) {
+        /**
+         * @return whether all items were counted, rather than stopping at the limit
+         */
+        boolean count(Spliterator<?> items, long limit) {
+            if (limit == Long.MAX_VALUE) {
+                if (items instanceof Spliterator.OfInt) {
+                    ((Spliterator.OfInt) items).forEachRemaining((IntConsumer) this);
+                } else if (items instanceof Spliterator.OfLong) {
+                    ((Spliterator.OfLong) items).forEachRemaining((LongConsumer) this);
+                } else if (items instanceof Spliterator.OfDouble) {
+                    ((Spliterator.OfDouble) items).forEachRemaining((DoubleConsumer) this);
+                } else {
+                    items.forEachRemaining(this);
+                }
+                return true;
+            }
+            while (count < limit) {
+                if (!advance(items)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean advance(Spliterator<?> items) {
+            if (items instanceof Spliterator.OfInt) {
+                return ((Spliterator.OfInt) items).tryAdvance((IntConsumer) this);
+            } else if (items instanceof Spliterator.OfLong) {
+                return ((Spliterator.OfLong) items).tryAdvance((LongConsumer) this);
+            } else if (items instanceof Spliterator.OfDouble) {
+                return ((Spliterator.OfDouble) items).tryAdvance((DoubleConsumer) this);
+            }
+            return items.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(Object item) {
+            count++;
+        }
+
+        @Override
+        public void accept(int item) {
+            count++;
+        }
+
+        @Override
+        public void accept(long item) {
+            count++;
+        }
+
+        @Override
+        public void accept(double item) {
+            count++;
+        }
+    }
+
+    private static abstract class PairMatcher<S> extends TypeSafeMatcher<S> {
+        private final Matcher<?> matcher;
+        private ConsecutivePair violation;
+
+        PairMatcher(Matcher<?> matcher) {
             this.matcher = matcher;
         }
 
+        abstract ConsecutivePair findViolation(S actual);
+
         @Override
-        protected boolean matchesSafely(DoubleStream actual) {
-            return actual.peek(accumulator::add).anyMatch(matcher::matches);
+        protected boolean matchesSafely(S actual) {
+            violation = findViolation(actual);
+            return violation == null;
         }
 
         @Override
-        protected void describeMismatchSafely(DoubleStream actual, Description mismatchDescription) {
-            anyMatchMismatch(mismatchDescription, accumulator);
+        public void describeTo(Description description) {
+            if (matcher == null) {
+                description.appendText("Each consecutive pair of items to satisfy the given relation");
+            } else {
+                description.appendText("Each consecutive pair of items to have a relation matching ").appendDescriptionOf(matcher);
+            }
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription
+                    .appendText("Items ").appendText(Long.toString(violation.position - 1))
+                    .appendText(" and ").appendText(Long.toString(violation.position));
+            if (matcher == null) {
+                mismatchDescription.appendText(" did not satisfy the relation: ");
+            } else {
+                mismatchDescription.appendText(" had the relation ").appendValue(violation.relation).appendText(": ");
+            }
+            mismatchDescription.appendValue(violation.previous).appendText(", ").appendValue(violation.item);
+        }
+    }
+
+    private static abstract class OrderMatcher<S> extends TypeSafeMatcher<S> {
+        private final String order;
+        private ConsecutivePair outOfOrder;
+
+        OrderMatcher(String order) {
+            this.order = order;
+        }
+
+        abstract ConsecutivePair findOutOfOrder(S actual);
+
+        @Override
+        protected boolean matchesSafely(S actual) {
+            outOfOrder = findOutOfOrder(actual);
+            return outOfOrder == null;
         }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("A Stream ").appendText(order);
+        }
+
+        @Override
+        protected void describeMismatchSafely(S actual, Description mismatchDescription) {
+            mismatchDescription
+                    .appendText("Items ").appendText(Long.toString(outOfOrder.position - 1))
+                    .appendText(" and ").appendText(Long.toString(outOfOrder.position))
+                    .appendText(" were out of order: ").appendValue(outOfOrder.previous)
+                    .appendText(", ").appendValue(outOfOrder.item);
+        }
+    }
+
+    private static <T> ConsecutivePair outOfOrder(Iterator<T> items, Comparator<? super T> comparator, boolean strictly) {
+        if (!items.hasNext()) {
+            return null;
+        }
+        T previous = items.next();
+        for (long position = 1; items.hasNext(); position++) {
+            T item = items.next();
+            int comparison = comparator.compare(previous, item);
+            if (comparison > 0 || strictly && comparison == 0) {
+                return new ConsecutivePair(position, previous, item);
+            }
+            previous = item;
+        }
+        return null;
+    }
+
+    private static ConsecutivePair intsOutOfOrder(PrimitiveIterator.OfInt items, boolean strictly) {
+        if (!items.hasNext()) {
+            return null;
+        }
+        int previous = items.nextInt();
+        for (long position = 1; items.hasNext(); position++) {
+            int item = items.nextInt();
+            if (previous > item || strictly && previous == item) {
+                return new ConsecutivePair(position, previous, item);
+            }
+            previous = item;
+        }
+        return null;
+    }
+
+    private static ConsecutivePair longsOutOfOrder(PrimitiveIterator.OfLong items, boolean strictly) {
+        if (!items.hasNext()) {
+            return null;
+        }
+        long previous = items.nextLong();
+        for (long position = 1; items.hasNext(); position++) {
+            long item = items.nextLong();
+            if (previous > item || strictly && previous == item) {
+                return new ConsecutivePair(position, previous, item);
+            }
+            previous = item;
+        }
+        return null;
     }
 
+    private static ConsecutivePair doublesOutOfOrder(PrimitiveIterator.OfDouble items, boolean strictly) {
+        if (!items.hasNext()) {
+            return null;
+        }
+        double previous = items.nextDouble();
+        for (long position = 1; items.hasNext(); position++) {
+            double item = items.nextDouble();
+            int comparison = Double.compare(previous, item);
+            if (comparison > 0 || strictly && comparison == 0) {
+                return new ConsecutivePair(position, previous, item);
+            }
+            previous = item;
+        }
+        return null;
+    }
 
     private static class ArrayIterator<T> implements Iterator<T> {
         private final T[] expected;
@@ -1002,6 +5138,13 @@ public class StreamMatchers {
         public int nextInt() {
             return expected[currentPos++];
         }
+
+        int drainTo(int[] chunk) {
+            int count = Math.min(chunk.length, expected.length - currentPos);
+            System.arraycopy(expected, currentPos, chunk, 0, count);
+            currentPos += count;
+            return count;
+        }
     }
 
     private static class LongArrayIterator implements PrimitiveIterator.OfLong {
@@ -1021,6 +5164,13 @@ public class StreamMatchers {
         public long nextLong() {
             return expected[currentPos++];
         }
+
+        int drainTo(long[] chunk) {
+            int count = Math.min(chunk.length, expected.length - currentPos);
+            System.arraycopy(expected, currentPos, chunk, 0, count);
+            currentPos += count;
+            return count;
+        }
     }
 
     private static class DoubleArrayIterator implements PrimitiveIterator.OfDouble {
@@ -1040,5 +5190,12 @@ public class StreamMatchers {
         public double nextDouble() {
             return expected[currentPos++];
         }
+
+        int drainTo(double[] chunk) {
+            int count = Math.min(chunk.length, expected.length - currentPos);
+            System.arraycopy(expected, currentPos, chunk, 0, count);
+            currentPos += count;
+            return count;
+        }
     }
 }
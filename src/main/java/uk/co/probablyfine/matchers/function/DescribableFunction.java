@@ -1,7 +1,5 @@
 package uk.co.probablyfine.matchers.function;
 
-import java.lang.invoke.MethodType;
-import java.lang.invoke.SerializedLambda;
 import java.util.function.Function;
 
 import static uk.co.probablyfine.matchers.internal.DescriptionUtils.withPrefixedArticle;
@@ -10,11 +8,10 @@ import static uk.co.probablyfine.matchers.internal.DescriptionUtils.withPrefixed
 public interface DescribableFunction<T, R> extends Function<T, R>, SerializedLambdaResolvable, SingleArgumentDescribableFunctionalInterface {
 
     default String getResultDescription() {
-        SerializedLambda lambda = asSerializedLambda();
-        MethodType lambdaMethodType = MethodType.fromMethodDescriptorString(lambda.getImplMethodSignature(), getClass().getClassLoader());
-        String resultType = lambdaMethodType.returnType().getSimpleName();
-        if (! lambda.getImplMethodName().startsWith("lambda$")) {
-            return lambda.getImplMethodName() + " (" + withPrefixedArticle(resultType) + ")";
+        LambdaSignature signature = LambdaSignature.of(this);
+        String resultType = signature.getResultType();
+        if (! signature.getReferencedMethodName().isEmpty()) {
+            return signature.getReferencedMethodName() + " (" + withPrefixedArticle(resultType) + ")";
         }
         return resultType;
     }
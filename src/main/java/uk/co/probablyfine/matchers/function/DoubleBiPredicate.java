@@ -0,0 +1,11 @@
+package uk.co.probablyfine.matchers.function;
+
+/**
+ * A predicate of two primitive {@code double}s, the {@code double} specialization of {@link java.util.function.BiPredicate}.
+ */
+@FunctionalInterface
+public interface DoubleBiPredicate {
+
+    boolean test(double left, double right);
+
+}
@@ -0,0 +1,11 @@
+package uk.co.probablyfine.matchers.function;
+
+/**
+ * A predicate of two primitive {@code int}s, the {@code int} specialization of {@link java.util.function.BiPredicate}.
+ */
+@FunctionalInterface
+public interface IntBiPredicate {
+
+    boolean test(int left, int right);
+
+}
@@ -0,0 +1,71 @@
+package uk.co.probablyfine.matchers.function;
+
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * What a serializable lambda, or method reference, is known to implement, resolved from its
+ * {@link SerializedLambda}. Every instance of a lambda class implements the same method, so the signature is
+ * resolved once per class, and kept in a {@link ClassValue}, which does not keep the class from being unloaded.
+ */
+final class LambdaSignature {
+
+    private static final ClassValue<AtomicReference<LambdaSignature>> SIGNATURES = new ClassValue<AtomicReference<LambdaSignature>>() {
+        @Override
+        protected AtomicReference<LambdaSignature> computeValue(Class<?> lambdaClass) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final String implMethodName;
+    private final String resultType;
+    private final String argumentType;
+
+    private LambdaSignature(String implMethodName, String resultType, String argumentType) {
+        this.implMethodName = implMethodName;
+        this.resultType = resultType;
+        this.argumentType = argumentType;
+    }
+
+    static LambdaSignature of(SerializedLambdaResolvable lambda) {
+        AtomicReference<LambdaSignature> cached = SIGNATURES.get(lambda.getClass());
+        LambdaSignature signature = cached.get();
+        if (signature == null) {
+            signature = resolve(lambda.asSerializedLambda(), lambda.getClass().getClassLoader());
+            cached.set(signature);
+        }
+        return signature;
+    }
+
+    private static LambdaSignature resolve(SerializedLambda lambda, ClassLoader classLoader) {
+        MethodType implMethodType = MethodType.fromMethodDescriptorString(lambda.getImplMethodSignature(), classLoader);
+        MethodType instantiatedMethodType = MethodType.fromMethodDescriptorString(lambda.getInstantiatedMethodType(), classLoader);
+        return new LambdaSignature(
+                lambda.getImplMethodName(),
+                implMethodType.returnType().getSimpleName(),
+                instantiatedMethodType.parameterType(0).getSimpleName());
+    }
+
+    /**
+     * @return the name of the method implementing a method reference, or empty for a lambda expression, which is
+     *         implemented by a synthetic method
+     */
+    String getReferencedMethodName() {
+        return implMethodName.startsWith("lambda$") ? "" : implMethodName;
+    }
+
+    /**
+     * @return the simple name of the type returned by the implementing method
+     */
+    String getResultType() {
+        return resultType;
+    }
+
+    /**
+     * @return the simple name of the type of the first argument of the implemented method
+     */
+    String getArgumentType() {
+        return argumentType;
+    }
+}
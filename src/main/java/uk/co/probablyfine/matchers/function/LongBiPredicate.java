@@ -0,0 +1,11 @@
+package uk.co.probablyfine.matchers.function;
+
+/**
+ * A predicate of two primitive {@code long}s, the {@code long} specialization of {@link java.util.function.BiPredicate}.
+ */
+@FunctionalInterface
+public interface LongBiPredicate {
+
+    boolean test(long left, long right);
+
+}
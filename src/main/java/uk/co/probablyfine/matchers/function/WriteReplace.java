@@ -0,0 +1,47 @@
+package uk.co.probablyfine.matchers.function;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes the {@code writeReplace} method generated for a serializable lambda, through a {@link MethodHandle}
+ * resolved once per lambda class. On Java 9 and later a version of this class from the multi-release JAR resolves
+ * the method by {@link MethodHandles#privateLookupIn}, instead of making it accessible by reflection.
+ */
+final class WriteReplace {
+
+    private static final MethodType WRITE_REPLACE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<MethodHandle> HANDLES = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> lambdaClass) {
+            try {
+                Method replaceMethod = lambdaClass.getDeclaredMethod("writeReplace");
+                replaceMethod.setAccessible(true);
+                return MethodHandles.lookup().unreflect(replaceMethod).asType(WRITE_REPLACE);
+            } catch (IllegalAccessException | NoSuchMethodException | SecurityException e) {
+                throw failure(e);
+            }
+        }
+    };
+
+    static SerializedLambda serializedLambdaOf(Object lambda) {
+        try {
+            Object replacement = HANDLES.get(lambda.getClass()).invokeExact(lambda);
+            return (SerializedLambda) replacement;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    private static RuntimeException failure(Throwable e) {
+        return new RuntimeException(e.getClass().getSimpleName() + ": '" + e.getMessage() + "'", e);
+    }
+
+    private WriteReplace() {}
+}
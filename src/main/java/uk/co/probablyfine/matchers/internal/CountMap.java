@@ -0,0 +1,54 @@
+package uk.co.probablyfine.matchers.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Counts occurrences of equal objects, including {@code null}.
+ *
+ * @param <T> The type of counted objects
+ * @see LongCountMap
+ */
+public final class CountMap<T> {
+
+    private final Map<T, long[]> counts = new HashMap<>();
+
+    public void add(T key) {
+        add(key, 1);
+    }
+
+    public void add(T key, long count) {
+        counts.computeIfAbsent(key, k -> new long[1])[0] += count;
+    }
+
+    public void addAll(CountMap<T> other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Remove occurrences of a key, as far as they have been counted.
+     *
+     * @return the number of occurrences which could not be removed, because the key was not counted as often
+     */
+    public long remove(T key, long count) {
+        long[] counted = counts.get(key);
+        if (counted == null) {
+            return count;
+        }
+        long removed = Math.min(count, counted[0]);
+        counted[0] -= removed;
+        return count - removed;
+    }
+
+    /**
+     * Perform an action for each key with a positive count.
+     */
+    public void forEach(ObjLongConsumer<? super T> action) {
+        counts.forEach((key, counted) -> {
+            if (counted[0] > 0) {
+                action.accept(key, counted[0]);
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.hamcrest.Description;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of primitive {@code double}s, for accumulating items without boxing them.
+ */
+public final class DoubleBuffer {
+
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private double[] values;
+    private int size = 0;
+
+    public DoubleBuffer() {
+        this(16);
+    }
+
+    public DoubleBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative, was " + initialCapacity);
+        }
+        this.values = new double[initialCapacity];
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grownCapacity());
+        }
+        values[size++] = value;
+    }
+
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Append the items to a description the same way as {@link Description#appendValueList(String, String, String, Iterable)}.
+     */
+    public void appendValueList(Description description, String start, String separator, String end) {
+        description.appendText(start);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                description.appendText(separator);
+            }
+            description.appendValue(values[i]);
+        }
+        description.appendText(end);
+    }
+
+    private int grownCapacity() {
+        if (size == MAX_CAPACITY) {
+            throw new OutOfMemoryError("DoubleBuffer can not grow beyond " + MAX_CAPACITY + " items");
+        }
+        return (int) Math.min(MAX_CAPACITY, Math.max(size + 1L, size + (size >> 1)));
+    }
+}
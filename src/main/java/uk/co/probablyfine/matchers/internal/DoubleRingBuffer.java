@@ -0,0 +1,101 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.hamcrest.Description;
+
+/**
+ * A fixed capacity buffer retaining only the most recently added primitive {@code double}s.
+ * Once full, each added item evicts the oldest one.
+ *
+ * @see RingBuffer
+ */
+public final class DoubleRingBuffer {
+
+    private final double[] values;
+    private int next = 0;
+    private long added = 0;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, was " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    public void add(double value) {
+        added++;
+        if (values.length == 0) {
+            return;
+        }
+        values[next] = value;
+        next = next + 1 == values.length ? 0 : next + 1;
+    }
+
+    /**
+     * Add the items of a range of an array in order, copying only those which will be retained.
+     *
+     * @param from the index of the first item to add
+     * @param to the index following the last item to add
+     */
+    public void addAll(double[] items, int from, int to) {
+        int evictedBeforehand = Math.max(0, to - from - values.length);
+        added += evictedBeforehand;
+        for (int i = from + evictedBeforehand; i < to; i++) {
+            add(items[i]);
+        }
+    }
+
+    /**
+     * @return the number of items currently retained
+     */
+    public int size() {
+        return (int) Math.min(added, values.length);
+    }
+
+    /**
+     * @return the number of items which have been added and since been evicted
+     */
+    public long evicted() {
+        return added - size();
+    }
+
+    /**
+     * @return the retained item at the given index, the oldest being at index 0
+     */
+    public double get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+        int slot = (size < values.length ? 0 : next) + index;
+        return values[slot >= values.length ? slot - values.length : slot];
+    }
+
+    /**
+     * @return the retained items, oldest first
+     */
+    public double[] toArray() {
+        int size = size();
+        int first = size < values.length ? 0 : next;
+        double[] retained = new double[size];
+        for (int i = 0; i < size; i++) {
+            retained[i] = values[(first + i) % values.length];
+        }
+        return retained;
+    }
+
+    /**
+     * Append the retained items, oldest first, to a description the same way as
+     * {@link Description#appendValueList(String, String, String, Iterable)}.
+     */
+    public void appendValueList(Description description, String start, String separator, String end) {
+        description.appendText(start);
+        double[] retained = toArray();
+        for (int i = 0; i < retained.length; i++) {
+            if (i > 0) {
+                description.appendText(separator);
+            }
+            description.appendValue(retained[i]);
+        }
+        description.appendText(end);
+    }
+}
@@ -0,0 +1,251 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A finite automaton over a sequence of elements, whose transitions are taken by elements matching a
+ * {@link Matcher}. It is built as a nondeterministic automaton, with epsilon transitions, and run as a deterministic
+ * automaton whose states are sets of the nondeterministic states. The deterministic states and their transitions
+ * are computed as they are reached, and cached, up to a limit, for the following runs.
+ *
+ * @param <T> The type of elements
+ */
+public final class ElementAutomaton<T> {
+
+    private static final int MAX_CACHED_STATES = 10_000;
+
+    private final List<Matcher<? super T>> symbols;
+    private final int[] symbolOf;
+    private final int[] targetOf;
+    private final BitSet[] closures;
+    private final int acceptingState;
+    private final DeterministicState initial;
+    private final Map<BitSet, DeterministicState> cache = new ConcurrentHashMap<>();
+
+    private ElementAutomaton(Builder<T> builder, int start, int acceptingState) {
+        this.symbols = new ArrayList<>(builder.symbols);
+        this.symbolOf = Arrays.copyOf(builder.symbolOf, builder.states);
+        this.targetOf = Arrays.copyOf(builder.targetOf, builder.states);
+        this.acceptingState = acceptingState;
+        this.closures = new BitSet[builder.states];
+        for (int state = 0; state < builder.states; state++) {
+            closures[state] = closure(state, builder.epsilons);
+        }
+        this.initial = stateOf(closures[start]);
+    }
+
+    private static BitSet closure(int state, List<List<Integer>> epsilons) {
+        BitSet closure = new BitSet();
+        int[] pending = new int[epsilons.size()];
+        int pendingCount = 0;
+        closure.set(state);
+        pending[pendingCount++] = state;
+        while (pendingCount > 0) {
+            for (int target : epsilons.get(pending[--pendingCount])) {
+                if (!closure.get(target)) {
+                    closure.set(target);
+                    pending[pendingCount++] = target;
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Run the automaton over the given elements.
+     *
+     * @return where the elements were rejected, or empty if they were accepted
+     */
+    public Optional<Rejection> run(Iterator<? extends T> elements) {
+        DeterministicState state = initial;
+        long position = 0;
+        while (elements.hasNext()) {
+            T element = elements.next();
+            DeterministicState next = state.next(element);
+            if (next.states.isEmpty()) {
+                return Optional.of(new Rejection(position, true, element, state.states, expectedIn(state)));
+            }
+            state = next;
+            position++;
+        }
+        return state.accepting ? Optional.empty() : Optional.of(new Rejection(position, false, null, state.states, expectedIn(state)));
+    }
+
+    private List<Matcher<?>> expectedIn(DeterministicState state) {
+        List<Matcher<?>> expected = new ArrayList<>();
+        for (int symbol : state.symbols) {
+            expected.add(symbols.get(symbol));
+        }
+        return expected;
+    }
+
+    private DeterministicState stateOf(BitSet states) {
+        DeterministicState cached = cache.get(states);
+        if (cached != null) {
+            return cached;
+        }
+        DeterministicState state = new DeterministicState(states);
+        if (cache.size() < MAX_CACHED_STATES) {
+            cache.putIfAbsent(states, state);
+        }
+        return state;
+    }
+
+    private final class DeterministicState {
+        final BitSet states;
+        final int[] symbols;
+        final boolean accepting;
+        final Map<BitSet, DeterministicState> transitions = new ConcurrentHashMap<>();
+
+        DeterministicState(BitSet states) {
+            this.states = states;
+            this.symbols = states.stream().map(state -> symbolOf[state]).filter(symbol -> symbol >= 0).distinct().sorted().toArray();
+            this.accepting = states.get(acceptingState);
+        }
+
+        DeterministicState next(T element) {
+            BitSet matched = new BitSet(symbols.length);
+            for (int i = 0; i < symbols.length; i++) {
+                if (ElementAutomaton.this.symbols.get(symbols[i]).matches(element)) {
+                    matched.set(i);
+                }
+            }
+            DeterministicState next = transitions.get(matched);
+            if (next == null) {
+                next = stateOf(targetsOf(matched));
+                if (transitions.size() < MAX_CACHED_STATES) {
+                    transitions.putIfAbsent(matched, next);
+                }
+            }
+            return next;
+        }
+
+        private BitSet targetsOf(BitSet matched) {
+            BitSet targets = new BitSet();
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                int symbol = symbolOf[state];
+                if (symbol >= 0 && matched.get(Arrays.binarySearch(symbols, symbol))) {
+                    targets.or(closures[targetOf[state]]);
+                }
+            }
+            return targets;
+        }
+    }
+
+    /**
+     * Where a sequence of elements was rejected by an automaton.
+     */
+    public static final class Rejection {
+        private final long position;
+        private final boolean hasElement;
+        private final Object element;
+        private final BitSet state;
+        private final List<Matcher<?>> expected;
+
+        Rejection(long position, boolean hasElement, Object element, BitSet state, List<Matcher<?>> expected) {
+            this.position = position;
+            this.hasElement = hasElement;
+            this.element = element;
+            this.state = state;
+            this.expected = Collections.unmodifiableList(expected);
+        }
+
+        /**
+         * @return the position of the rejected element, or the number of elements if they ended prematurely
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * @return whether an element was rejected, rather than the end of the elements
+         */
+        public boolean hasElement() {
+            return hasElement;
+        }
+
+        public Object getElement() {
+            return element;
+        }
+
+        /**
+         * @return the states of the nondeterministic automaton the element was rejected in
+         */
+        public String getState() {
+            return state.toString();
+        }
+
+        /**
+         * @return the matchers of the transitions out of the state the element was rejected in
+         */
+        public List<Matcher<?>> getExpected() {
+            return expected;
+        }
+    }
+
+    /**
+     * Builds a nondeterministic automaton, in which each state has at most one transition taken by an element.
+     */
+    public static final class Builder<T> {
+        private final List<Matcher<? super T>> symbols = new ArrayList<>();
+        private final Map<Matcher<? super T>, Integer> symbolIndexes = new IdentityHashMap<>();
+        private final List<List<Integer>> epsilons = new ArrayList<>();
+        private int[] symbolOf = new int[16];
+        private int[] targetOf = new int[16];
+        private int states = 0;
+
+        /**
+         * @return a new state
+         */
+        public int state() {
+            if (states == symbolOf.length) {
+                symbolOf = Arrays.copyOf(symbolOf, states * 2);
+                targetOf = Arrays.copyOf(targetOf, states * 2);
+            }
+            symbolOf[states] = -1;
+            epsilons.add(new ArrayList<>());
+            return states++;
+        }
+
+        /**
+         * Add a transition taken without consuming an element.
+         */
+        public void epsilon(int from, int to) {
+            epsilons.get(from).add(to);
+        }
+
+        /**
+         * Add a transition taken by an element matching the given matcher.
+         */
+        public void element(int from, Matcher<? super T> matcher, int to) {
+            if (symbolOf[from] >= 0) {
+                int via = state();
+                epsilon(from, via);
+                from = via;
+            }
+            Integer symbol = symbolIndexes.get(matcher);
+            if (symbol == null) {
+                symbol = symbols.size();
+                symbols.add(matcher);
+                symbolIndexes.put(matcher, symbol);
+            }
+            symbolOf[from] = symbol;
+            targetOf[from] = to;
+        }
+
+        public ElementAutomaton<T> build(int start, int accepting) {
+            return new ElementAutomaton<>(this, start, accepting);
+        }
+    }
+}
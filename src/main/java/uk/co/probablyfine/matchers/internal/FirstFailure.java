@@ -0,0 +1,119 @@
+package uk.co.probablyfine.matchers.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The first item, by position, which fails a test.
+ *
+ * @param <T> The type of the item
+ */
+public final class FirstFailure<T> {
+
+    private static final long LEAF_SIZE = 1L << 12;
+
+    private final long position;
+    private final T item;
+
+    private FirstFailure(long position, T item) {
+        this.position = position;
+        this.item = item;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * Search for the first item failing the test. When searching in parallel, and the items can be split into
+     * parts of known sizes, the parts are tested concurrently on the common {@link ForkJoinPool}, and the failure
+     * with the lowest position is resolved without locking. Parts positioned after an already found failure
+     * are not tested any further. Otherwise the items are tested sequentially, stopping at the first failure.
+     *
+     * @param items the items to test
+     * @param parallel whether to test the items in parallel, if possible
+     * @param test the test each item should pass
+     */
+    public static <T> Optional<FirstFailure<T>> find(Spliterator<T> items, boolean parallel, Predicate<? super T> test) {
+        AtomicReference<FirstFailure<T>> firstFailure = new AtomicReference<>();
+        Search<T> search = new Search<>(items, 0, test, firstFailure);
+        if (parallel && items.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)) {
+            ForkJoinPool.commonPool().invoke(search);
+        } else {
+            search.testSequentially(items);
+        }
+        return Optional.ofNullable(firstFailure.get());
+    }
+
+    private static final class Search<T> extends RecursiveAction implements Consumer<T> {
+        private final Spliterator<T> items;
+        private final Predicate<? super T> test;
+        private final AtomicReference<FirstFailure<T>> firstFailure;
+        private long position;
+        private boolean failed = false;
+
+        Search(Spliterator<T> items, long position, Predicate<? super T> test, AtomicReference<FirstFailure<T>> firstFailure) {
+            this.items = items;
+            this.position = position;
+            this.test = test;
+            this.firstFailure = firstFailure;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> remaining = items;
+            List<Search<T>> suffixes = new ArrayList<>();
+            Spliterator<T> prefix;
+            while (remaining.estimateSize() > LEAF_SIZE && position < lowestFailingPosition() && (prefix = remaining.trySplit()) != null) {
+                Search<T> suffix = new Search<>(remaining, position + prefix.getExactSizeIfKnown(), test, firstFailure);
+                suffix.fork();
+                suffixes.add(suffix);
+                remaining = prefix;
+            }
+            testSequentially(remaining);
+            for (Search<T> suffix : suffixes) {
+                suffix.join();
+            }
+        }
+
+        void testSequentially(Spliterator<T> remaining) {
+            while (!failed && position < lowestFailingPosition() && remaining.tryAdvance(this)) {
+                position++;
+            }
+        }
+
+        @Override
+        public void accept(T item) {
+            if (!test.test(item)) {
+                failed = true;
+                offer(new FirstFailure<>(position, item));
+            }
+        }
+
+        private void offer(FirstFailure<T> failure) {
+            FirstFailure<T> current;
+            do {
+                current = firstFailure.get();
+                if (current != null && current.position <= failure.position) {
+                    return;
+                }
+            } while (!firstFailure.compareAndSet(current, failure));
+        }
+
+        private long lowestFailingPosition() {
+            FirstFailure<T> current = firstFailure.get();
+            return current != null ? current.position : Long.MAX_VALUE;
+        }
+    }
+}
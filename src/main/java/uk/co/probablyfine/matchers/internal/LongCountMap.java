@@ -0,0 +1,116 @@
+package uk.co.probablyfine.matchers.internal;
+
+/**
+ * Counts occurrences of primitive {@code long}s, or widened {@code int}s, in an open addressing hash table
+ * with linear probing, for counting items without boxing them.
+ */
+public final class LongCountMap {
+
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(long key, long count);
+    }
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] counts;
+    private boolean[] used;
+    private int size = 0;
+
+    public LongCountMap() {
+        this(16);
+    }
+
+    public LongCountMap(int expectedKeys) {
+        int capacity = 4;
+        while (capacity < expectedKeys * 2L && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.used = new boolean[capacity];
+    }
+
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, long count) {
+        int slot = slotOf(key);
+        if (!used[slot]) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = slotOf(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += count;
+    }
+
+    public void addAll(LongCountMap other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Remove occurrences of a key, as far as they have been counted.
+     *
+     * @return the number of occurrences which could not be removed, because the key was not counted as often
+     */
+    public long remove(long key, long count) {
+        int slot = slotOf(key);
+        if (!used[slot]) {
+            return count;
+        }
+        long removed = Math.min(count, counts[slot]);
+        counts[slot] -= removed;
+        return count - removed;
+    }
+
+    /**
+     * Perform an action for each key with a positive count.
+     */
+    public void forEach(CountConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot] && counts[slot] > 0) {
+                action.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new OutOfMemoryError("LongCountMap can not grow beyond " + MAX_CAPACITY + " slots");
+        }
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = slotOf(oldKeys[slot]);
+                used[newSlot] = true;
+                keys[newSlot] = oldKeys[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,177 @@
+package uk.co.probablyfine.matchers.internal;
+
+/**
+ * Records the position at which each distinct primitive {@code long}, or widened {@code int}, was first seen,
+ * without boxing.
+ * Values are kept in an open addressing hash table with linear probing, until the range between the
+ * smallest and largest value is dense enough to index a table of positions directly by value, which takes
+ * 4 bytes per value in that range instead of at least 24 bytes per value in the hash table.
+ * Should the range become sparse again, the values are moved back to a hash table.
+ */
+public final class LongFirstSeen {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long DENSE = 4;
+    private static final long SPARSE = 8;
+
+    // positions are stored incremented, so that 0 marks an unused slot
+    private long[] keys;
+    private int[] positions;
+    private long base;
+    private boolean direct = false;
+    private int size = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public LongFirstSeen() {
+        this.keys = new long[16];
+        this.positions = new int[16];
+    }
+
+    /**
+     * See a value, at the position following all previously seen values.
+     *
+     * @return the position the value was first seen at, or {@code -1} if it had not been seen before
+     */
+    public int add(long value) {
+        return direct ? addDirectly(value) : addHashed(value);
+    }
+
+    /**
+     * @return the number of distinct values seen
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return whether positions are currently indexed directly by value
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    private int addDirectly(long value) {
+        long offset = value - base;
+        if (value >= base && offset >= 0 && offset < positions.length) {
+            int seen = positions[(int) offset];
+            if (seen != 0) {
+                return seen - 1;
+            }
+            positions[(int) offset] = ++size;
+            seenValue(value);
+            return -1;
+        }
+        long newMin = Math.min(min, value);
+        long newMax = Math.max(max, value);
+        long span = span(newMin, newMax);
+        if (span <= SPARSE * (size + 1L) && span <= MAX_CAPACITY) {
+            int length = (int) Math.min(MAX_CAPACITY, Math.max(span, positions.length * 2L));
+            long lowest = newMax - (length - 1);
+            relocate(value < base && lowest <= newMin ? lowest : newMin, length);
+        } else {
+            rehash();
+        }
+        return add(value);
+    }
+
+    private int addHashed(long value) {
+        int slot = slotOf(value);
+        if (positions[slot] != 0) {
+            return positions[slot] - 1;
+        }
+        keys[slot] = value;
+        positions[slot] = ++size;
+        seenValue(value);
+        if (size * 2L > keys.length) {
+            long span = span(min, max);
+            if (span <= DENSE * size && span <= MAX_CAPACITY) {
+                index((int) span);
+            } else {
+                grow();
+            }
+        }
+        return -1;
+    }
+
+    private void seenValue(long value) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (positions[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new OutOfMemoryError("LongFirstSeen can not grow beyond " + MAX_CAPACITY + " slots");
+        }
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new long[oldKeys.length * 2];
+        positions = new int[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldPositions[slot] != 0) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                positions[newSlot] = oldPositions[slot];
+            }
+        }
+    }
+
+    private void index(int length) {
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = null;
+        positions = new int[length];
+        base = min;
+        direct = true;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldPositions[slot] != 0) {
+                positions[(int) (oldKeys[slot] - base)] = oldPositions[slot];
+            }
+        }
+    }
+
+    private void relocate(long newBase, int length) {
+        int[] oldPositions = positions;
+        positions = new int[length];
+        System.arraycopy(oldPositions, (int) (min - base), positions, (int) (min - newBase), (int) (max - min + 1));
+        base = newBase;
+    }
+
+    private void rehash() {
+        int[] oldPositions = positions;
+        int capacity = 16;
+        while (capacity < (size + 1L) * 2 && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        positions = new int[capacity];
+        direct = false;
+        for (int offset = 0; offset < oldPositions.length; offset++) {
+            if (oldPositions[offset] != 0) {
+                long key = base + offset;
+                int slot = slotOf(key);
+                keys[slot] = key;
+                positions[slot] = oldPositions[offset];
+            }
+        }
+    }
+
+    private static long span(long min, long max) {
+        long difference = max - min;
+        return difference < 0 || difference == Long.MAX_VALUE ? Long.MAX_VALUE : difference + 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
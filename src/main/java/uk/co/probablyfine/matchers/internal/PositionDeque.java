@@ -0,0 +1,64 @@
+package uk.co.probablyfine.matchers.internal;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed capacity double ended queue of primitive {@code long} positions, such as the positions of the
+ * minimum candidates of a sliding window.
+ */
+public final class PositionDeque {
+
+    private final long[] positions;
+    private int head = 0;
+    private int size = 0;
+
+    public PositionDeque(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, was " + capacity);
+        }
+        this.positions = new long[capacity];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long first() {
+        checkNotEmpty();
+        return positions[head];
+    }
+
+    public long last() {
+        checkNotEmpty();
+        return positions[slot(size - 1)];
+    }
+
+    public void addLast(long position) {
+        if (size == positions.length) {
+            throw new IllegalStateException("PositionDeque is full, capacity is " + positions.length);
+        }
+        positions[slot(size++)] = position;
+    }
+
+    public void removeFirst() {
+        checkNotEmpty();
+        head = slot(1);
+        size--;
+    }
+
+    public void removeLast() {
+        checkNotEmpty();
+        size--;
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= positions.length ? slot - positions.length : slot;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package uk.co.probablyfine.matchers.internal;
+
+import java.util.Arrays;
+
+/**
+ * Estimates quantiles of a sequence of {@code double}s in bounded memory, by a hierarchy of compacting buffers.
+ * Items are added to the buffer of level 0. When an item is added to the full buffer of a level, the buffer is
+ * first sorted, and every other item is moved to the buffer of the next level, where each item stands for twice as many items. Levels alternate
+ * between keeping the items at odd and at even positions, so that errors tend to cancel out.
+ * <p>
+ * Each compaction at level {@code h} moves the rank of any value by at most {@code 2^h}, and consumes
+ * {@code capacity * 2^h} added items, so after {@code n} items the rank of an estimated quantile deviates from
+ * the exact rank by at most {@code n * L / capacity}, where {@code L} is the number of compacted levels, about
+ * {@code log2(n / capacity)}. As long as no more than {@code capacity} items have been added, nothing is compacted,
+ * and quantiles are exact. Sketches of parts of a sequence can be {@linkplain #merge(QuantileSketch) merged}
+ * within the same bound.
+ * <p>
+ * Items are ordered like {@link Double#compare(double, double)}.
+ */
+public final class QuantileSketch {
+
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    private final int capacity;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private boolean[] keepOdd = new boolean[1];
+    private long count = 0;
+
+    public QuantileSketch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QuantileSketch(int capacity) {
+        if (capacity < 2 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("capacity must be an even number of at least 2, was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void add(double value) {
+        count++;
+        addAt(0, value);
+    }
+
+    public void merge(QuantileSketch other) {
+        count += other.count;
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                addAt(level, other.levels[level][i]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of added items
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return whether the quantiles are exact, because no items have been compacted
+     */
+    public boolean isExact() {
+        return sizes.length == 1;
+    }
+
+    /**
+     * @return the maximum deviation of the rank of an estimated quantile from its exact rank, as a fraction of
+     *         the number of added items
+     */
+    public double rankError() {
+        return (sizes.length - 1) / (double) capacity;
+    }
+
+    /**
+     * The smallest item such that at least a fraction {@code q} of all items are less than or equal to it,
+     * which is the item of rank {@code ceil(q * n)}, counting from 1, or the smallest item for {@code q = 0}.
+     *
+     * @param q the quantile, between 0 and 1
+     * @throws IllegalStateException if no items have been added
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            throw new IllegalStateException("No items to estimate the " + q + " quantile of");
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        double[][] sorted = new double[sizes.length][];
+        int[] next = new int[sizes.length];
+        for (int level = 0; level < sizes.length; level++) {
+            sorted[level] = sizes[level] == 0 ? new double[0] : Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted[level]);
+        }
+        long seen = 0;
+        while (true) {
+            int lowest = -1;
+            for (int level = 0; level < sorted.length; level++) {
+                if (next[level] < sorted[level].length
+                        && (lowest < 0 || Double.compare(sorted[level][next[level]], sorted[lowest][next[lowest]]) < 0)) {
+                    lowest = level;
+                }
+            }
+            double value = sorted[lowest][next[lowest]++];
+            seen += 1L << lowest;
+            if (seen >= rank) {
+                return value;
+            }
+        }
+    }
+
+    private void addAt(int level, double value) {
+        if (level == sizes.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            keepOdd = Arrays.copyOf(keepOdd, level + 1);
+        }
+        if (levels[level] == null) {
+            levels[level] = new double[capacity];
+        }
+        if (sizes[level] == capacity) {
+            compact(level);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void compact(int level) {
+        double[] buffer = levels[level];
+        Arrays.sort(buffer);
+        sizes[level] = 0;
+        int offset = keepOdd[level] ? 1 : 0;
+        keepOdd[level] = !keepOdd[level];
+        for (int i = offset; i < capacity; i += 2) {
+            addAt(level + 1, buffer[i]);
+        }
+    }
+}
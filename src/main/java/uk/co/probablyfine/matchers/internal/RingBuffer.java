@@ -0,0 +1,86 @@
+package uk.co.probablyfine.matchers.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed capacity buffer retaining only the most recently added elements. Once full, each added
+ * element evicts the oldest one. Unlike {@link java.util.ArrayDeque}, {@code null} elements are permitted.
+ *
+ * @param <T> The type of elements
+ */
+public final class RingBuffer<T> implements Iterable<T> {
+
+    private final Object[] elements;
+    private int next = 0;
+    private long added = 0;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, was " + capacity);
+        }
+        this.elements = new Object[capacity];
+    }
+
+    public void add(T element) {
+        added++;
+        if (elements.length == 0) {
+            return;
+        }
+        elements[next] = element;
+        next = next + 1 == elements.length ? 0 : next + 1;
+    }
+
+    /**
+     * @return the number of elements currently retained
+     */
+    public int size() {
+        return (int) Math.min(added, elements.length);
+    }
+
+    /**
+     * @return the number of elements which have been added and since been evicted
+     */
+    public long evicted() {
+        return added - size();
+    }
+
+    /**
+     * @return the retained element at the given index, the oldest being at index 0
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+        int slot = (size < elements.length ? 0 : next) + index;
+        return (T) elements[slot >= elements.length ? slot - elements.length : slot];
+    }
+
+    /**
+     * Iterates the retained elements, oldest first.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        int size = size();
+        int first = size < elements.length ? 0 : next;
+        return new Iterator<T>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (T) elements[(first + position++) % elements.length];
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.util.function.Supplier;
+
+/**
+ * Shares a matcher which retains what it found while matching an item, to describe the mismatch afterwards,
+ * between threads. Each thread matches with and describes by its own instance of the matcher, created when the
+ * thread first uses it, so that matching on one thread does not change what is described on another.
+ *
+ * @param <T> The type of matched items
+ */
+public final class ThreadConfinedMatcher<T> extends BaseMatcher<T> {
+
+    private final ThreadLocal<Matcher<T>> instances;
+
+    private ThreadConfinedMatcher(Supplier<? extends Matcher<T>> matchers) {
+        this.instances = ThreadLocal.withInitial(matchers);
+    }
+
+    /**
+     * @param matchers creates a new, independent instance of the matcher on each call
+     */
+    public static <T> Matcher<T> threadConfined(Supplier<? extends Matcher<T>> matchers) {
+        return new ThreadConfinedMatcher<>(matchers);
+    }
+
+    @Override
+    public boolean matches(Object actual) {
+        return instances.get().matches(actual);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        instances.get().describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description mismatchDescription) {
+        instances.get().describeMismatch(item, mismatchDescription);
+    }
+}
@@ -0,0 +1,46 @@
+package uk.co.probablyfine.matchers.function;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+
+/**
+ * Invokes the {@code writeReplace} method generated for a serializable lambda, through a {@link MethodHandle}
+ * resolved once per lambda class by a lookup with private access to the lambda class, which requires no deep
+ * reflection as long as the package of the lambda is open to this library, as any package of the unnamed module is.
+ */
+final class WriteReplace {
+
+    private static final MethodType WRITE_REPLACE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<MethodHandle> HANDLES = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> lambdaClass) {
+            try {
+                return MethodHandles.privateLookupIn(lambdaClass, MethodHandles.lookup())
+                        .findVirtual(lambdaClass, "writeReplace", MethodType.methodType(Object.class))
+                        .asType(WRITE_REPLACE);
+            } catch (IllegalAccessException | NoSuchMethodException | SecurityException e) {
+                throw failure(e);
+            }
+        }
+    };
+
+    static SerializedLambda serializedLambdaOf(Object lambda) {
+        try {
+            Object replacement = HANDLES.get(lambda.getClass()).invokeExact(lambda);
+            return (SerializedLambda) replacement;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    private static RuntimeException failure(Throwable e) {
+        return new RuntimeException(e.getClass().getSimpleName() + ": '" + e.getMessage() + "'", e);
+    }
+
+    private WriteReplace() {}
+}
@@ -0,0 +1,107 @@
+package uk.co.probablyfine.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Matchers shared between threads, each thread matching and describing items of its own, must describe the
+ * mismatch of the item the thread matched.
+ */
+class ConcurrentMatchingTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2_000;
+
+    private static final List<Case<?>> CASES = new ArrayList<>();
+
+    static {
+        CASES.add(new Case<>(StreamMatchers.yieldsExactlyInt(0, 1, 2, 3),
+                i -> IntStream.of(0, 1, 10 + i, 3), i -> "Stream of [<0>,<1>,<" + (10 + i) + ">,<3>]"));
+        CASES.add(new Case<>(StreamMatchers.yieldsExactly("a", "b"),
+                i -> Stream.of("a", "b", "c" + i), i -> "Stream of [\"a\",\"b\",\"c" + i + "\"]"));
+        CASES.add(new Case<>(StreamMatchers.allMatch(lessThan(100)),
+                i -> Stream.of(0, 1, 100 + i), i -> "Item 2 failed to match: <" + (100 + i) + ">"));
+        CASES.add(new Case<>(StreamMatchers.isSortedInt(),
+                i -> IntStream.of(5, -i), i -> "Items 0 and 1 were out of order: <5>, <" + -i + ">"));
+        CASES.add(new Case<>(StreamMatchers.yieldsNothing(),
+                i -> Stream.of(i), i -> "the Stream started with <" + i + "> and is then exhausted"));
+        CASES.add(new Case<>(StreamMatchers.yieldsDistinctInt(),
+                i -> IntStream.of(i, i), i -> "Items 0 and 1 were both <" + i + ">"));
+        CASES.add(new Case<>(OptionalMatchers.present(is(-1)),
+                Optional::of, i -> "was <Optional[" + i + "]>"));
+        CASES.add(new Case<>(TimeMatchers.after(LocalDate.of(2000, 1, 1)),
+                i -> LocalDate.of(1900, 1, 1).plusDays(i), i -> "was <" + LocalDate.of(1900, 1, 1).plusDays(i) + ">"));
+    }
+
+    @Test
+    void sharedMatchersDescribeTheMismatchOfEachThread() throws InterruptedException {
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                        for (Case<?> testCase : CASES) {
+                            testCase.check(thread * ITERATIONS + iteration, failures);
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.add(e.toString());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures, empty());
+    }
+
+    private static final class Case<T> {
+        private final Matcher<? super T> matcher;
+        private final IntFunction<T> items;
+        private final IntFunction<String> mismatches;
+
+        Case(Matcher<? super T> matcher, IntFunction<T> items, IntFunction<String> mismatches) {
+            this.matcher = matcher;
+            this.items = items;
+            this.mismatches = mismatches;
+        }
+
+        void check(int i, Queue<String> failures) {
+            T item = items.apply(i);
+            if (matcher.matches(item)) {
+                failures.add(matcher + " matched item " + i);
+                return;
+            }
+            Thread.yield();
+            Description mismatch = new StringDescription();
+            matcher.describeMismatch(item, mismatch);
+            String expected = mismatches.apply(i);
+            if (!mismatch.toString().equals(expected)) {
+                failures.add(matcher + " described item " + i + " as '" + mismatch + "' instead of '" + expected + "'");
+            }
+        }
+    }
+}
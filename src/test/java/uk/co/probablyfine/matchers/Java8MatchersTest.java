@@ -1,9 +1,13 @@
 package uk.co.probablyfine.matchers;
 
 
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.junit.jupiter.api.Test;
+import uk.co.probablyfine.matchers.function.DescribableFunction;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static java.util.Comparator.comparing;
@@ -45,6 +49,56 @@ public class Java8MatchersTest {
     }
 
 
+    @Test
+    public void failingPropertyIsResolvedOnlyOnce() {
+        AtomicInteger resolved = new AtomicInteger();
+        Helper.testFailingMatcher(entity, Java8Matchers.where("resolution", a -> resolved.incrementAndGet(), is(0)), "with a resolution which is <0>", "had the resolution <1>");
+        assertThat(resolved.get(), is(1));
+    }
+
+    @Test
+    public void propertyIsResolvedAgainWhenMatchingAgain() {
+        AtomicInteger resolved = new AtomicInteger();
+        Matcher<A> matcher = Java8Matchers.where("resolution", a -> resolved.incrementAndGet(), is(2));
+        assertThat(matcher.matches(entity), is(false));
+        assertThat(matcher.matches(entity), is(true));
+        assertThat(resolved.get(), is(2));
+    }
+
+    @Test
+    public void failingPropertyIsReleasedOnceDescribed() {
+        AtomicInteger resolved = new AtomicInteger();
+        Matcher<A> matcher = Java8Matchers.where("resolution", a -> resolved.incrementAndGet(), is(0));
+        assertThat(matcher.matches(entity), is(false));
+        matcher.describeMismatch(entity, new StringDescription());
+        assertThat(resolved.get(), is(1));
+        matcher.describeMismatch(entity, new StringDescription());
+        assertThat(resolved.get(), is(2));
+    }
+
+    @Test
+    public void failingPropertyIsReleasedWhenAMatchPasses() {
+        AtomicInteger resolved = new AtomicInteger();
+        Matcher<A> matcher = Java8Matchers.where("resolution", a -> resolved.incrementAndGet(), is(2));
+        assertThat(matcher.matches(entity), is(false));
+        assertThat(matcher.matches(entity), is(true));
+        StringDescription mismatch = new StringDescription();
+        matcher.describeMismatch(entity, mismatch);
+        assertThat(mismatch.toString(), is("had the resolution <3>"));
+    }
+
+    @Test
+    public void passingPropertiesAreNotDescribed() {
+        DescribableFunction<A, String> notSerializable = new DescribableFunction<A, String>() {
+            @Override
+            public String apply(A a) {
+                return a.name();
+            }
+        };
+        assertThat(entity, Java8Matchers.where(notSerializable, is("A")));
+    }
+
+
     static class A {
         boolean isCool() {
             return true;
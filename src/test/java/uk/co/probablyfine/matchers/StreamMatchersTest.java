@@ -1,12 +1,31 @@
 package uk.co.probablyfine.matchers;
 
+import org.hamcrest.CustomTypeSafeMatcher;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
+import org.hamcrest.StringDescription;
 import org.junit.jupiter.api.Test;
+import uk.co.probablyfine.matchers.StreamMatchers.Budget;
+import uk.co.probablyfine.matchers.StreamMatchers.CapturePolicy;
+import uk.co.probablyfine.matchers.StreamMatchers.DoubleWindow;
+import uk.co.probablyfine.matchers.StreamMatchers.ElementPattern;
+import uk.co.probablyfine.matchers.StreamMatchers.IntWindow;
+import uk.co.probablyfine.matchers.StreamMatchers.Sampling;
 import uk.co.probablyfine.matchers.function.DescribableFunction;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -14,16 +33,27 @@ import java.util.stream.Stream;
 
 import static java.util.Comparator.comparing;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static uk.co.probablyfine.matchers.ApiHelper.describe;
 import static uk.co.probablyfine.matchers.ApiHelper.isDeprecated;
 import static uk.co.probablyfine.matchers.HamcrestApiMatchers.existsInHamcrest;
 import static uk.co.probablyfine.matchers.Java8Matchers.where;
+import static uk.co.probablyfine.matchers.StreamMatchers.ElementPattern.anyOf;
+import static uk.co.probablyfine.matchers.StreamMatchers.ElementPattern.element;
+import static uk.co.probablyfine.matchers.StreamMatchers.ElementPattern.sequence;
 
 class StreamMatchersTest {
 
@@ -100,6 +130,378 @@ class StreamMatchersTest {
         assertThat(Stream.of("a", null, "c"), StreamMatchers.yieldsExactly("a", null, "c"));
     }
 
+    @Test
+    void yieldsInAnyOrder_success() {
+        assertThat(Stream.of("b", "a", "b", null), StreamMatchers.yieldsInAnyOrder(Stream.of(null, "b", "b", "a")));
+        assertThat(Stream.of("b", "a", "b"), StreamMatchers.yieldsInAnyOrder("a", "b", "b"));
+        assertThat(IntStream.of(3, 1, 2), StreamMatchers.yieldsInAnyOrderInt(1, 2, 3));
+        assertThat(LongStream.of(3, 1, 2), StreamMatchers.yieldsInAnyOrderLong(1, 2, 3));
+        assertThat(DoubleStream.of(Double.NaN, 1.0), StreamMatchers.yieldsInAnyOrderDouble(1.0, Double.NaN));
+    }
+
+    @Test
+    void yieldsInAnyOrder_failure() {
+        Helper.testFailingMatcher(Stream.of("b", "a", "c"), StreamMatchers.yieldsInAnyOrder("a", "b", "b"),
+                "Stream of [\"a\",\"b\",\"b\"] in any order", "yielded unexpected [\"c\"] and was missing [\"b\"]");
+    }
+
+    @Test
+    void yieldsInAnyOrderInt_failureDescribesFirstItems() {
+        Helper.testFailingMatcher(IntStream.range(0, 100), StreamMatchers.yieldsInAnyOrder(IntStream.range(0, 98)),
+                "Stream of [<0>,<1>,<2>,<3>,<4>,<5>,<6>,<7>,<8>,<9>,...] (98 items in total) in any order", "yielded unexpected [<98>,<99>]");
+    }
+
+    @Test
+    void yieldsInAnyOrderInt_failureDescribesItemsAsInts() {
+        Helper.testFailingMatcher(IntStream.of(1, -5).parallel(), StreamMatchers.yieldsInAnyOrderInt(1, 2), "Stream of [<1>,<2>] in any order", "yielded unexpected [<-5>] and was missing [<2>]");
+    }
+
+    @Test
+    void yieldsInAnyOrderLong_failure() {
+        Helper.testFailingMatcher(LongStream.of(1, 2), StreamMatchers.yieldsInAnyOrderLong(2, 2, 1), "Stream of [<2L>,<2L>,<1L>] in any order", "was missing [<2L>]");
+    }
+
+    @Test
+    void yieldsInAnyOrderDouble_failure() {
+        Helper.testFailingMatcher(DoubleStream.of(0.0), StreamMatchers.yieldsInAnyOrderDouble(-0.0), "Stream of [<-0.0>] in any order", "yielded unexpected [<0.0>] and was missing [<-0.0>]");
+    }
+
+    @Test
+    void yieldsInAnyOrder_parallelUnorderedStreams() {
+        assertThat(IntStream.range(0, 1_000_000).parallel().unordered().map(i -> 999_999 - i), StreamMatchers.yieldsInAnyOrder(IntStream.range(0, 1_000_000)));
+        assertThat(LongStream.range(0, 1_000_000).parallel().map(i -> i % 1000), not(StreamMatchers.yieldsInAnyOrder(LongStream.range(0, 1_000_000))));
+        assertThat(Stream.iterate(0, i -> i + 1).limit(100_000).parallel(), StreamMatchers.yieldsInAnyOrder(IntStream.range(0, 100_000).map(i -> 99_999 - i).boxed()));
+        assertThat(DoubleStream.of(1, 2, 3, 3).parallel(), StreamMatchers.yieldsInAnyOrderDouble(3, 2, 3, 1));
+    }
+
+    @Test
+    void isSorted_success() {
+        assertThat(Stream.of("a", "b", "b", "c"), StreamMatchers.isSorted());
+        assertThat(Stream.<String>empty(), StreamMatchers.isStrictlyIncreasing());
+        assertThat(Stream.of("c", "b", "a"), StreamMatchers.isSortedBy(Comparator.reverseOrder()));
+        assertThat(IntStream.of(1, 1, 2), StreamMatchers.isSortedInt());
+        assertThat(LongStream.range(0, 10_000_000), StreamMatchers.isStrictlyIncreasingLong());
+        assertThat(DoubleStream.of(-0.0, 0.0, Double.NaN), StreamMatchers.isStrictlyIncreasingDouble());
+    }
+
+    @Test
+    void isSorted_failure() {
+        Helper.testFailingMatcher(Stream.of("a", "c", "b", "d"), StreamMatchers.isSorted(), "A Stream sorted in non-decreasing order", "Items 1 and 2 were out of order: \"c\", \"b\"");
+    }
+
+    @Test
+    void isStrictlyIncreasingInt_failureStopsAtFirstItemOutOfOrder() {
+        Helper.testFailingMatcher(IntStream.iterate(0, i -> i < 5 ? i + 1 : i), StreamMatchers.isStrictlyIncreasingInt(), "A Stream in strictly increasing order", "Items 5 and 6 were out of order: <5>, <5>");
+    }
+
+    @Test
+    void isSortedLong_failure() {
+        Helper.testFailingMatcher(LongStream.of(1, 2, 1), StreamMatchers.isSortedLong(), "A Stream sorted in non-decreasing order", "Items 1 and 2 were out of order: <2L>, <1L>");
+    }
+
+    @Test
+    void isSortedDouble_failure() {
+        Helper.testFailingMatcher(DoubleStream.of(0.0, -0.0), StreamMatchers.isSortedDouble(), "A Stream sorted in non-decreasing order", "Items 0 and 1 were out of order: <0.0>, <-0.0>");
+    }
+
+    @Test
+    void isSortedBy_failure() {
+        Helper.testFailingMatcher(Stream.of("aa", "b"), StreamMatchers.isSortedBy(comparing(String::length)), "A Stream sorted by the given Comparator", "Items 0 and 1 were out of order: \"aa\", \"b\"");
+    }
+
+    @Test
+    void yieldsCount_success() {
+        assertThat(Stream.of("a", "b"), StreamMatchers.yieldsCount(is(2L)));
+        assertThat(Stream.iterate(0, i -> i + 1).limit(5).filter(i -> i % 2 == 0), StreamMatchers.yieldsCount(is(3L)));
+        assertThat(IntStream.range(0, Integer.MAX_VALUE), StreamMatchers.yieldsCount(greaterThan(1_000_000L)));
+        assertThat(LongStream.iterate(0, i -> i + 1), StreamMatchers.yieldsCountAtLeast(3));
+        assertThat(DoubleStream.of(1, 2, 3).filter(d -> d > 1), StreamMatchers.yieldsCountAtMost(2));
+        assertThat(Stream.empty(), StreamMatchers.yieldsCountAtMost(0));
+    }
+
+    @Test
+    void yieldsCount_doesNotProduceItemsOfSizedStream() {
+        assertThat(IntStream.range(0, 3).peek(i -> { throw new AssertionError("produced " + i); }), StreamMatchers.yieldsCount(is(3L)));
+    }
+
+    @Test
+    void yieldsCount_failure() {
+        Helper.testFailingMatcher(Stream.of("a", "b").filter(s -> true), StreamMatchers.yieldsCount(is(3L)), "A Stream yielding a number of items matching is <3L>", "yielded 2 items");
+    }
+
+    @Test
+    void yieldsCountAtMost_failureStopsOnceExceeded() {
+        Helper.testFailingMatcher(IntStream.iterate(0, i -> i + 1), StreamMatchers.yieldsCountAtMost(3), "A Stream yielding at most 3 items", "yielded at least 4 items");
+    }
+
+    @Test
+    void yieldsCountAtLeast_failure() {
+        Helper.testFailingMatcher(LongStream.of(1).filter(i -> true), StreamMatchers.yieldsCountAtLeast(2), "A Stream yielding at least 2 items", "yielded 1 item");
+    }
+
+    @Test
+    void eachConsecutivePair_success() {
+        assertThat(Stream.of("a", "ab", "abc"), StreamMatchers.eachConsecutivePair((previous, next) -> next.startsWith(previous)));
+        assertThat(Stream.<String>empty(), StreamMatchers.eachConsecutivePair((previous, next) -> false));
+        assertThat(Stream.of("a"), StreamMatchers.eachConsecutivePair((String previous, String next) -> next.length() - previous.length(), is(1)));
+        assertThat(IntStream.range(0, 10), StreamMatchers.eachConsecutivePairInt((previous, next) -> next == previous + 1));
+        assertThat(LongStream.iterate(1, i -> i * 2).limit(62), StreamMatchers.eachConsecutivePairLong((previous, next) -> next / previous, is(2L)));
+        assertThat(DoubleStream.of(0.0, 0.5, 1.1), StreamMatchers.eachConsecutivePairDouble((previous, next) -> next - previous, lessThan(1.0)));
+    }
+
+    @Test
+    void eachConsecutivePair_failure() {
+        Helper.testFailingMatcher(Stream.of("a", "ab", "b"), StreamMatchers.eachConsecutivePair((previous, next) -> next.startsWith(previous)), "Each consecutive pair of items to satisfy the given relation", "Items 1 and 2 did not satisfy the relation: \"ab\", \"b\"");
+    }
+
+    @Test
+    void eachConsecutivePairInt_failureStopsAtFirstPairNotRelated() {
+        Helper.testFailingMatcher(IntStream.iterate(0, i -> i < 3 ? i + 1 : i + 2), StreamMatchers.eachConsecutivePairInt((previous, next) -> next == previous + 1), "Each consecutive pair of items to satisfy the given relation", "Items 3 and 4 did not satisfy the relation: <3>, <5>");
+    }
+
+    @Test
+    void eachConsecutivePairLong_failure() {
+        Helper.testFailingMatcher(LongStream.of(1, 3, 5, 9), StreamMatchers.eachConsecutivePairLong((previous, next) -> next - previous, is(2L)), "Each consecutive pair of items to have a relation matching is <2L>", "Items 2 and 3 had the relation <4L>: <5L>, <9L>");
+    }
+
+    @Test
+    void eachConsecutivePairDouble_failure() {
+        Helper.testFailingMatcher(DoubleStream.of(1.0, 0.5), StreamMatchers.eachConsecutivePairDouble((previous, next) -> previous <= next), "Each consecutive pair of items to satisfy the given relation", "Items 0 and 1 did not satisfy the relation: <1.0>, <0.5>");
+    }
+
+    @Test
+    void eachConsecutivePair_derivedValueFailure() {
+        Helper.testFailingMatcher(Stream.of("a", "ab", "abcd"), StreamMatchers.eachConsecutivePair((String previous, String next) -> next.length() - previous.length(), is(1)), "Each consecutive pair of items to have a relation matching is <1>", "Items 1 and 2 had the relation <2>: \"ab\", \"abcd\"");
+    }
+
+    @Test
+    void yieldsDistinct_success() {
+        assertThat(Stream.of("a", null, "b"), StreamMatchers.yieldsDistinct());
+        assertThat(IntStream.range(-1_000_000, 1_000_000).map(i -> i * 7), StreamMatchers.yieldsDistinctInt());
+        assertThat(LongStream.of(Long.MIN_VALUE, Long.MAX_VALUE, 0), StreamMatchers.yieldsDistinctLong());
+        assertThat(DoubleStream.of(0.0, -0.0, Double.NaN), StreamMatchers.yieldsDistinctDouble());
+    }
+
+    @Test
+    void yieldsDistinct_failure() {
+        Helper.testFailingMatcher(Stream.of("a", "b", "c", "b"), StreamMatchers.yieldsDistinct(), "A Stream of distinct items", "Items 1 and 3 were both \"b\"");
+    }
+
+    @Test
+    void yieldsDistinctInt_failureStopsAtFirstDuplicate() {
+        Helper.testFailingMatcher(IntStream.iterate(0, i -> (i + 1) % 5_000_000), StreamMatchers.yieldsDistinctInt(), "A Stream of distinct items", "Items 0 and 5000000 were both <0>");
+    }
+
+    @Test
+    void yieldsDistinctLong_failure() {
+        Helper.testFailingMatcher(LongStream.of(3, Long.MAX_VALUE, 3), StreamMatchers.yieldsDistinctLong(), "A Stream of distinct items", "Items 0 and 2 were both <3L>");
+    }
+
+    @Test
+    void yieldsDistinctDouble_failure() {
+        Helper.testFailingMatcher(DoubleStream.of(Double.NaN, 1.0, Double.NaN), StreamMatchers.yieldsDistinctDouble(), "A Stream of distinct items", "Items 0 and 2 were both <NaN>");
+    }
+
+    @Test
+    void summarizes_success() {
+        assertThat(IntStream.rangeClosed(1, 100), StreamMatchers.summarizesInt(allOf(
+                where(IntSummaryStatistics::getCount, is(100L)),
+                where(IntSummaryStatistics::getSum, is(5050L)),
+                where(IntSummaryStatistics::getMax, is(100)))));
+        assertThat(LongStream.range(0, 1_000_000).parallel(), StreamMatchers.summarizesLong(
+                where(LongSummaryStatistics::getAverage, is(499_999.5))));
+        assertThat(DoubleStream.concat(DoubleStream.of(1e16), DoubleStream.generate(() -> 1.0).limit(1_000)), StreamMatchers.summarizesDouble(
+                where(DoubleSummaryStatistics::getSum, is(1e16 + 1_000))));
+    }
+
+    @Test
+    void summarizes_failure() {
+        Helper.testFailingMatcher(IntStream.of(1, 2, 3), StreamMatchers.summarizesInt(where(IntSummaryStatistics::getMin, is(0))), "A Stream summarized by IntSummaryStatistics with a getMin (an int) which is <0>", "was summarized as IntSummaryStatistics{count=3, sum=6, min=1, average=2.000000, max=3}, which had the getMin (an int) <1>");
+    }
+
+    @Test
+    void quantile_exactForFewItems() {
+        assertThat(DoubleStream.of(5, 1, 4, 2, 3), StreamMatchers.quantile(0.5, is(3.0)));
+        assertThat(DoubleStream.of(5, 1, 4, 2, 3), StreamMatchers.quantile(0.0, is(1.0)));
+        assertThat(DoubleStream.of(5, 1, 4, 2, 3), StreamMatchers.quantile(1.0, is(5.0)));
+        assertThat(DoubleStream.of(5, 1, 4, 2, 3), StreamMatchers.exactQuantile(0.8, is(4.0)));
+    }
+
+    @Test
+    void quantile_estimatesWithinBound() {
+        int n = 2_000_000;
+        assertThat(IntStream.range(0, n).mapToDouble(i -> (i * 7_919L) % n).parallel(), StreamMatchers.quantile(0.99, closeTo(0.99 * n, n / 1_000.0)));
+        assertThat(IntStream.range(0, n).mapToDouble(i -> (i * 7_919L) % n), StreamMatchers.quantile(0.5, closeTo(0.5 * n, n / 1_000.0)));
+    }
+
+    @Test
+    void quantile_failure() {
+        Helper.testFailingMatcher(DoubleStream.of(10, 11, 13), StreamMatchers.quantile(0.99, lessThan(12.0)), "A Stream with a 0.99 quantile matching a value less than <12.0>", "the 0.99 quantile of 3 items was <13.0>");
+        Helper.testFailingMatcher(DoubleStream.empty(), StreamMatchers.exactQuantile(0.5, lessThan(12.0)), "A Stream with a 0.5 quantile matching a value less than <12.0>", "was an empty Stream");
+    }
+
+    @Test
+    void quantile_failureOfEstimateIncludesErrorBound() {
+        Helper.testFailingMatcher(IntStream.range(0, 100_000).mapToDouble(i -> i), StreamMatchers.quantile(0.5, lessThan(100.0)), "A Stream with a 0.5 quantile matching a value less than <100.0>", "the 0.5 quantile of 100000 items was estimated as");
+    }
+
+    @Test
+    void allMatch_sampled_success() {
+        AtomicReference<Integer> matched = new AtomicReference<>(0);
+        Matcher<Integer> counting = new CustomTypeSafeMatcher<Integer>("counted") {
+            @Override
+            protected boolean matchesSafely(Integer item) {
+                matched.updateAndGet(n -> n + 1);
+                return true;
+            }
+        };
+        assertThat(IntStream.range(0, 1_000_000).boxed(), StreamMatchers.allMatch(counting, Sampling.reservoir(100, 42)));
+        assertThat(matched.get(), is(100));
+
+        matched.set(0);
+        assertThat(IntStream.range(0, 1_000_000), StreamMatchers.allMatchInt(counting, Sampling.bernoulli(0.001, 42)));
+        assertThat(matched.get(), is(both(greaterThan(800)).and(lessThan(1_200))));
+
+        assertThat(LongStream.range(0, 5), StreamMatchers.allMatchLong(lessThan(5L), Sampling.reservoir(10)));
+        assertThat(DoubleStream.of(1, 2), StreamMatchers.allMatchDouble(lessThan(3.0), Sampling.bernoulli(1)));
+    }
+
+    @Test
+    void allMatch_sampled_failure() {
+        Helper.testFailingMatcher(IntStream.range(0, 100).boxed(), StreamMatchers.allMatch(lessThan(0), Sampling.reservoir(100, 7)), "All to match <a value less than <0>>, checking a sample of 100 items (seed 7)", "Item 0 failed to match: <0>, having sampled 100 of 100 items with seed 7");
+        Helper.testFailingMatcher(IntStream.range(0, 100), StreamMatchers.allMatchInt(lessThan(0), Sampling.bernoulli(1, 7)), "All to match <a value less than <0>>, checking each item with probability 1.0 (seed 7)", "Item 0 failed to match: <0>, having sampled 1 of 1 items with seed 7");
+    }
+
+    @Test
+    void allMatch_sampled_reproducesFailureWithSameSeed() {
+        Matcher<LongStream> sampled = StreamMatchers.allMatchLong(not(is(123_456L)), Sampling.bernoulli(0.5, 1));
+        boolean first = sampled.matches(LongStream.range(0, 1_000_000));
+        StringDescription firstMismatch = new StringDescription();
+        sampled.describeMismatch(LongStream.range(0, 1_000_000), firstMismatch);
+        assertThat(sampled.matches(LongStream.range(0, 1_000_000)), is(first));
+        StringDescription secondMismatch = new StringDescription();
+        sampled.describeMismatch(LongStream.range(0, 1_000_000), secondMismatch);
+        assertThat(secondMismatch.toString(), is(firstMismatch.toString()));
+    }
+
+    @Test
+    void withinBudget_success() {
+        assertThat(Stream.of(1, 2, 3), StreamMatchers.withinBudget(Budget.elements(3), StreamMatchers.yieldsExactly(1, 2, 3)));
+        assertThat(IntStream.range(0, 1_000).parallel(), StreamMatchers.withinBudget(Budget.time(Duration.ofMinutes(1)), StreamMatchers.allMatchInt(lessThan(1_000))));
+    }
+
+    @Test
+    void withinBudget_failureOfMatcher() {
+        Helper.testFailingMatcher(Stream.of(1, 2), StreamMatchers.withinBudget(Budget.elements(10), StreamMatchers.yieldsNothing()), "A Stream yielding no elements, within a budget of 10 elements", "the Stream started with <1>");
+    }
+
+    @Test
+    void withinBudget_stopsInfiniteStreamAfterItems() {
+        Helper.testFailingMatcher(Stream.iterate(0, i -> i + 1), StreamMatchers.withinBudget(Budget.elements(1_000), StreamMatchers.allMatch(greaterThan(-1))), "All to match <a value greater than <-1>>, within a budget of 1000 elements", "budget exhausted after 1000 elements / ");
+        Helper.testFailingMatcher(LongStream.iterate(0, i -> i + 1), StreamMatchers.withinBudget(Budget.elements(12), StreamMatchers.allMatchLong(greaterThan(-1L))), "within a budget of 12 elements", "having yielded Stream of [<0L>,<1L>,<2L>,<3L>,<4L>,<5L>,<6L>,<7L>,<8L>,<9L>,...]");
+    }
+
+    @Test
+    void withinBudget_stopsInfiniteStreamAfterTime() {
+        Helper.testFailingMatcher(DoubleStream.generate(() -> 1.0), StreamMatchers.withinBudget(Budget.time(Duration.ofMillis(50)).andElements(Long.MAX_VALUE - 1), StreamMatchers.allMatchDouble(is(1.0))), "within a budget of 9223372036854775806 elements / 50 ms", "having yielded Stream of [<1.0>,");
+    }
+
+    @Test
+    void withinBudget_checksTimeWhenTheStreamEnds() {
+        Helper.testFailingMatcher(Stream.of(1, 2, 3).peek(i -> sleep(Duration.ofMillis(30))), StreamMatchers.withinBudget(Budget.time(Duration.ofMillis(50)), StreamMatchers.allMatch(greaterThan(0))),
+                "within a budget of 50 ms", "budget exhausted after 3 elements / ");
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void includesSequence_success() {
+        assertThat(Stream.of("a", "b", "a", "b", "a", "c", "x"), StreamMatchers.includesSequence("a", "b", "a", "c"));
+        assertThat(Stream.of("a"), StreamMatchers.includesSequence());
+        assertThat(IntStream.iterate(0, i -> i + 1), StreamMatchers.includesSequenceInt(1_000_000, 1_000_001));
+        assertThat(LongStream.of(1, 1, 1, 2), StreamMatchers.includesSequenceLong(1, 1, 2));
+        assertThat(DoubleStream.of(Double.NaN, 0.0), StreamMatchers.includesSequenceDouble(Double.NaN, 0.0));
+    }
+
+    @Test
+    void includesSequence_failure() {
+        Helper.testFailingMatcher(Stream.of("a", "b", "a", "b", "d"), StreamMatchers.includesSequence("a", "b", "c"), "A Stream including the sequence [\"a\",\"b\",\"c\"]", "the sequence was not found in 5 items, the longest partial match being the first 2 expected items, ending at item 1");
+        Helper.testFailingMatcher(IntStream.range(0, 3), StreamMatchers.includesSequenceInt(7), "A Stream including the sequence [<7>]", "the sequence was not found in 3 items");
+        Helper.testFailingMatcher(DoubleStream.of(0.0, 1.0), StreamMatchers.includesSequenceDouble(-0.0, 1.0), "A Stream including the sequence [<-0.0>,<1.0>]", "the sequence was not found in 2 items");
+    }
+
+    @Test
+    void yieldsMatching_success() {
+        ElementPattern<String> protocol = sequence(element(is("HANDSHAKE")), anyOf(element(is("DATA")), element(is("ACK"))).zeroOrMore(), element(is("CLOSE")));
+        assertThat(Stream.of("HANDSHAKE", "CLOSE"), StreamMatchers.yieldsMatching(protocol));
+        assertThat(Stream.of("HANDSHAKE", "DATA", "ACK", "DATA", "CLOSE"), StreamMatchers.yieldsMatching(protocol));
+        assertThat(Stream.of(1, 2, 2, 3), StreamMatchers.yieldsMatching(sequence(element(is(1)), element(is(2)).times(1, 3), element(greaterThan(2)).optional())));
+        assertThat(Stream.of(1, 1, 1), StreamMatchers.yieldsMatching(element(is(1)).atLeast(2)));
+        assertThat(Stream.empty(), StreamMatchers.yieldsMatching(element(is(1)).zeroOrMore().zeroOrMore()));
+        assertThat(IntStream.range(0, HUGE / 10).boxed(), StreamMatchers.yieldsMatching(sequence(element(lessThan(HUGE)).oneOrMore(), element(is(HUGE / 10 - 1)))));
+    }
+
+    @Test
+    void yieldsMatching_failureOnItem() {
+        ElementPattern<String> protocol = sequence(element(is("HANDSHAKE")), anyOf(element(is("DATA")), element(is("ACK"))).zeroOrMore(), element(is("CLOSE")));
+        Helper.testFailingMatcher(Stream.of("HANDSHAKE", "DATA", "NACK", "CLOSE"), StreamMatchers.yieldsMatching(protocol),
+                "A Stream matching (<is \"HANDSHAKE\">, (<is \"DATA\">|<is \"ACK\">)*, <is \"CLOSE\">)",
+                "Item 2 was \"NACK\" in automaton state {2, 3, 4, 5, 6}, expecting an item matching is \"DATA\" or is \"ACK\" or is \"CLOSE\"");
+        Helper.testFailingMatcher(Stream.of(1, 2), StreamMatchers.yieldsMatching(element(is(1))), "A Stream matching <is <1>>", "Item 1 was <2> in automaton state {1}, expecting the end of the Stream");
+    }
+
+    @Test
+    void yieldsMatching_failureOnEnd() {
+        Helper.testFailingMatcher(Stream.of(1, 1), StreamMatchers.yieldsMatching(element(is(1)).times(3)), "A Stream matching <is <1>>{3}", "the Stream ended after 2 items in automaton state {2}, expecting an item matching is <1>");
+    }
+
+    @Test
+    void everyWindow_success() {
+        assertThat(Stream.of("ok", "error", "ok", "ok", "error", "ok"), StreamMatchers.everyWindow(3, where(window -> window.stream().filter("error"::equals).count(), lessThanOrEqualTo(1L))));
+        assertThat(Stream.of(1, 2), StreamMatchers.everyWindow(3, hasSize(0)));
+        assertThat(IntStream.range(0, 1_000), StreamMatchers.everyWindowInt(100, allOf(
+                where(IntWindow::getAverage, is(closeTo(0, 1_000))), where(window -> window.getMax() - window.getMin(), is(99)))));
+        assertThat(LongStream.range(0, 12), StreamMatchers.everyWindowLong(4, 4, where(window -> window.getStart() % 4, is(0L))));
+        assertThat(DoubleStream.generate(() -> 0.1).limit(100_000), StreamMatchers.everyWindowDouble(10, where(DoubleWindow::getSum, closeTo(1.0, 1e-12))));
+    }
+
+    @Test
+    void everyWindowDouble_sumsNonFiniteAndLargeItemsLeavingTheWindow() {
+        assertThat(windowsOf(2, DoubleWindow::getSum, 1, Double.POSITIVE_INFINITY, 2, 3, 4), contains(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 5.0, 7.0));
+        assertThat(windowsOf(2, DoubleWindow::getSum, 1, Double.NaN, 2, Double.NEGATIVE_INFINITY, 4), contains(Double.NaN, Double.NaN, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY));
+        assertThat(windowsOf(3, DoubleWindow::getSum, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1, 2, 3), contains(Double.NaN, Double.NEGATIVE_INFINITY, 6.0));
+        assertThat(windowsOf(2, DoubleWindow::getSum, 1e17, 1, 1, 1, 1), contains(1e17, 2.0, 2.0, 2.0));
+        assertThat(windowsOf(2, DoubleWindow::getSum, -1e300, 1e300, 1, 1), contains(0.0, 1e300, 2.0));
+        assertThat(windowsOf(2, DoubleWindow::getAverage, 1, Double.POSITIVE_INFINITY, 2, Double.NaN, 3, 5), contains(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN, Double.NaN, 4.0));
+        assertThat(windowsOf(3, DoubleWindow::getAverage, 1e17, 1, 1, 1, 1), contains(closeTo(1e17 / 3, 1e2), is(1.0), is(1.0)));
+    }
+
+    private static List<Double> windowsOf(int size, ToDoubleFunction<DoubleWindow> property, double... items) {
+        List<Double> values = new ArrayList<>();
+        assertThat(DoubleStream.of(items), StreamMatchers.everyWindowDouble(size, where(window -> values.add(property.applyAsDouble(window)), is(true))));
+        return values;
+    }
+
+    @Test
+    void everyWindow_failure() {
+        Helper.testFailingMatcher(Stream.of("ok", "ok", "error", "ok", "error"), StreamMatchers.everyWindow(3, 2, where(window -> window.stream().filter("error"::equals).count(), lessThanOrEqualTo(1L))),
+                "Every window of 3 consecutive items, starting every 2 items, to match ", "the window of items 2 to 4, [error, ok, error], had the Long <2L>");
+    }
+
+    @Test
+    void everyWindowInt_failureReportsWindow() {
+        Helper.testFailingMatcher(IntStream.of(5, 1, 4, 9, 2, 6), StreamMatchers.everyWindowInt(3, where(IntWindow::getMax, lessThan(9))),
+                "Every window of 3 consecutive items to match IntWindow with a getMax (an int) which a value less than <9>", "the window of items 1 to 3, [1, 4, 9], had the getMax (an int) <9>");
+        Helper.testFailingMatcher(DoubleStream.of(3, 2, 1, 0), StreamMatchers.everyWindowDouble(2, 2, where(DoubleWindow::getMin, greaterThan(0.5))),
+                "Every window of 2 consecutive items, not overlapping, to match", "the window of items 2 to 3, [1.0, 0.0], had the getMin (a double) <0.0>");
+    }
+
     @Test
     void allMatch_success() {
         assertThat(Stream.of("bar","baz"), StreamMatchers.allMatch(containsString("a")));
@@ -119,6 +521,17 @@ class StreamMatchersTest {
         Helper.testFailingMatcher(testData, matcher, "All to match <a value less than <3>>", "Item 3 failed to match: <3>");
     }
 
+    @Test
+    void allMatchInt_reusedOnTheSameThread() {
+        Matcher<IntStream> matcher = StreamMatchers.allMatchInt(Matchers.lessThan(3));
+        assertThat(mismatchOf(matcher, IntStream.range(0, 10)), is("Item 3 failed to match: <3>"));
+        assertThat(matcher.matches(IntStream.range(0, 3)), is(true));
+        StringDescription mismatch = new StringDescription();
+        matcher.describeMismatch(IntStream.range(0, 3), mismatch);
+        assertThat(mismatch.toString(), is("all items matched"));
+        assertThat(mismatchOf(matcher, IntStream.of(0, 7)), is("Item 1 failed to match: <7>"));
+    }
+
     @Test
     void allMatchLong_failure() {
         Matcher<LongStream> matcher = StreamMatchers.allMatchLong(Matchers.lessThan(3L));
@@ -133,6 +546,39 @@ class StreamMatchersTest {
         Helper.testFailingMatcher(testData, matcher, "All to match <a value less than <3.0>>", "Item 3 failed to match: <3.0>");
     }
 
+    @Test
+    void allMatch_failureOnParallelStreamReportsFirstFailingItem() {
+        for (int i = 0; i < 20; i++) {
+            Matcher<Stream<Integer>> matcher = StreamMatchers.allMatch(not(equalTo(-1)));
+            Stream<Integer> testData = IntStream.range(0, 1_000_000).map(n -> n % 100_003 == 77_777 ? -1 : n).boxed().parallel();
+            Helper.testFailingMatcher(testData, matcher, "All to match <not <-1>>", "Item 77777 failed to match: <-1>");
+        }
+    }
+
+    @Test
+    void allMatchInt_failureOnParallelStreamReportsFirstFailingItem() {
+        Matcher<IntStream> matcher = StreamMatchers.allMatchInt(Matchers.lessThan(500_000));
+        Helper.testFailingMatcher(IntStream.range(0, 1_000_000).parallel(), matcher, "All to match <a value less than <500000>>", "Item 500000 failed to match: <500000>");
+    }
+
+    @Test
+    void allMatchLong_failureOnParallelStreamReportsFirstFailingItem() {
+        Matcher<LongStream> matcher = StreamMatchers.allMatchLong(Matchers.lessThan(3L));
+        Helper.testFailingMatcher(LongStream.range(0, 1_000_000).map(n -> n % 1000).parallel(), matcher, "All to match <a value less than <3L>>", "Item 3 failed to match: <3L>");
+    }
+
+    @Test
+    void allMatchDouble_failureOnUnsizedParallelStreamReportsFirstFailingItem() {
+        Matcher<DoubleStream> matcher = StreamMatchers.allMatchDouble(Matchers.lessThan(3d));
+        DoubleStream testData = DoubleStream.iterate(0d, d -> d + 1).limit(100_000).filter(d -> d != 1).parallel();
+        Helper.testFailingMatcher(testData, matcher, "All to match <a value less than <3.0>>", "Item 2 failed to match: <3.0>");
+    }
+
+    @Test
+    void allMatch_successOnParallelStream() {
+        assertThat(IntStream.range(0, 1_000_000).parallel(), StreamMatchers.allMatchInt(Matchers.greaterThanOrEqualTo(0)));
+    }
+
     @Test
     void allMatch_empty() {
         assertThat(Stream.empty(), StreamMatchers.allMatch(containsString("foo")));
@@ -180,6 +626,30 @@ class StreamMatchersTest {
         Helper.testFailingMatcher(DoubleStream.iterate(0d, i -> i + 1).limit(5), StreamMatchers.anyMatchDouble(equalTo(101d)), "Any to match <<101.0>>", "None of these items matched: [<0.0>,<1.0>,<2.0>,<3.0>,<4.0>]");
     }
 
+    @Test
+    void anyMatch_failureOnlyDescribesLastItems() {
+        Helper.testFailingMatcher(Stream.iterate(0, i -> i + 1).limit(10_000_000), StreamMatchers.anyMatch(equalTo(-1)), "Any to match <<-1>>",
+                "None of 10000000 items matched, the last 10 being: [...,<9999990>,<9999991>,<9999992>,<9999993>,<9999994>,<9999995>,<9999996>,<9999997>,<9999998>,<9999999>]");
+    }
+
+    @Test
+    void anyMatchInt_failureOnlyDescribesLastItems() {
+        Helper.testFailingMatcher(IntStream.range(0, 12), StreamMatchers.anyMatchInt(equalTo(-1)), "Any to match <<-1>>",
+                "None of 12 items matched, the last 10 being: [...,<2>,<3>,<4>,<5>,<6>,<7>,<8>,<9>,<10>,<11>]");
+    }
+
+    @Test
+    void anyMatchLong_failureOnlyDescribesLastItems() {
+        Helper.testFailingMatcher(LongStream.range(0, 11), StreamMatchers.anyMatchLong(equalTo(-1L)), "Any to match <<-1L>>",
+                "None of 11 items matched, the last 10 being: [...,<1L>,<2L>,<3L>,<4L>,<5L>,<6L>,<7L>,<8L>,<9L>,<10L>]");
+    }
+
+    @Test
+    void anyMatchDouble_failureOnlyDescribesLastItems() {
+        Helper.testFailingMatcher(DoubleStream.iterate(0, d -> d + 1).limit(11), StreamMatchers.anyMatchDouble(equalTo(-1d)), "Any to match <<-1.0>>",
+                "None of 11 items matched, the last 10 being: [...,<1.0>,<2.0>,<3.0>,<4.0>,<5.0>,<6.0>,<7.0>,<8.0>,<9.0>,<10.0>]");
+    }
+
     @Test
     void anyMatch_empty() {
         assertThat(Stream.empty(),not(StreamMatchers.anyMatch(containsString("foo"))));
@@ -264,6 +734,199 @@ class StreamMatchersTest {
         Helper.testFailingMatcher(testData, matcher, "Stream of [<0>,<1>,<2>,<3>,<4>,<5>]", "Stream of [<8>,<9>]");
     }
 
+    @Test
+    void equalTo_failureMessagesShowContextBeforeMismatch() {
+        Matcher<IntStream> matcher = StreamMatchers.yieldsSameAs(IntStream.range(0, 100));
+        IntStream testData = IntStream.range(0, 100).map(i -> i == 50 ? -1 : i);
+        Helper.testFailingMatcher(testData, matcher,
+                "Stream of [...,<40>,<41>,<42>,<43>,<44>,<45>,<46>,<47>,<48>,<49>,<50>,<51>,<52>,<53>,<54>,<55>,<56>,<57>,<58>,<59>,<60>,...] followed by 39 more items",
+                "Stream of [...,<40>,<41>,<42>,<43>,<44>,<45>,<46>,<47>,<48>,<49>,<-1>,<51>,<52>,<53>,<54>,<55>,<56>,<57>,<58>,<59>,<60>,...] followed by 39 more items");
+    }
+
+    @Test
+    void equalTo_failureMessagesWithCapturePolicy() {
+        Matcher<Stream<String>> matcher = StreamMatchers.yieldsSameAs(Stream.of("a", "b", "c", "d", "e", "f"), CapturePolicy.context(1, 2).countingRemainderUpTo(0));
+        Stream<String> testData = Stream.of("a", "b", "x", "d", "e", "f");
+        Helper.testFailingMatcher(testData, matcher, "Stream of [...,\"b\",\"c\",\"d\",\"e\",...] followed by more items", "Stream of [...,\"b\",\"x\",\"d\",\"e\",...] followed by more items");
+    }
+
+    @Test
+    void comparingMatchersTakeCapturePolicy() {
+        CapturePolicy policy = CapturePolicy.context(1, 1).countingRemainderUpTo(1);
+        Helper.testFailingMatcher(Stream.of(1, 2, 3, 4, 5, 6), StreamMatchers.yieldsExactly(policy, 1, 2, -3, 4, 5, 6),
+                "Stream of [...,<2>,<-3>,<4>,...] followed by at least 1 more item", "Stream of [...,<2>,<3>,<4>,...] followed by at least 1 more item");
+        Helper.testFailingMatcher(Stream.of(1, 2, 3), StreamMatchers.yieldsExactly(policy, is(1), is(2), is(-3)),
+                "Stream of [...,<is <2>>,<is <-3>>]", "Stream of [...,<2>,<3>]");
+        Helper.testFailingMatcher(IntStream.range(0, 10), StreamMatchers.yieldsExactlyInt(policy, 0, 1, -2, 3, 4, 5, 6, 7, 8, 9),
+                "Stream of [...,<1>,<-2>,<3>,...] followed by at least 1 more item", "Stream of [...,<1>,<2>,<3>,...] followed by at least 1 more item");
+        Helper.testFailingMatcher(Stream.iterate(0, i -> i + 1), StreamMatchers.startsWith(policy, 0, 1, -2, 3),
+                "Stream of [...,<1>,<-2>,<3>]", "Stream of [...,<1>,<2>,<3>]");
+        Helper.testFailingMatcher(LongStream.iterate(0, i -> i + 1), StreamMatchers.startsWithLong(policy, 0, 1, -2, 3),
+                "Stream of [...,<1L>,<-2L>,<3L>]", "Stream of [...,<1L>,<2L>,<3L>]");
+        Helper.testFailingMatcher(DoubleStream.iterate(0, i -> i + 1), StreamMatchers.startsWith(DoubleStream.iterate(0, i -> i + 1).map(i -> i == 2 ? -2 : i), 6, policy),
+                "Stream of [...,<1.0>,<-2.0>,<3.0>,...] followed by at least 1 more item", "Stream of [...,<1.0>,<2.0>,<3.0>,...] followed by at least 1 more item");
+    }
+
+    @Test
+    void equalTo_failureOfDifferentKnownSizesDoesNotTraverseStreams() {
+        Matcher<IntStream> matcher = StreamMatchers.yieldsSameAs(IntStream.range(0, 200_000_000), CapturePolicy.context(3, 3));
+        IntStream testData = IntStream.range(0, 199_999_999).peek(i -> assertThat(i, lessThan(3)));
+        Helper.testFailingMatcher(testData, matcher, "Stream of [<0>,<1>,<2>,...] followed by 199999997 more items", "Stream of [<0>,<1>,<2>,...] followed by 199999996 more items");
+    }
+
+    @Test
+    void equalTo_failureOfDifferentKnownSizesShowsDifferenceInPrefix() {
+        Matcher<Stream<String>> matcher = StreamMatchers.yieldsSameAs(Stream.of("a", "b", "c", "d"), CapturePolicy.context(2, 1));
+        Helper.testFailingMatcher(Stream.of("a", "x", "c"), matcher, "Stream of [\"a\",\"b\",...] followed by 2 more items", "Stream of [\"a\",\"x\",...] followed by 1 more item");
+    }
+
+    @Test
+    void contains_failureOfDifferentKnownSizesDoesNotTraverseStream() {
+        Helper.testFailingMatcher(LongStream.range(0, 1_000_000_000).boxed(), StreamMatchers.yieldsExactly(0L, 1L), "Stream of [<0L>,<1L>]", "Stream of [<0L>,<1L>,<2L>,<3L>,<4L>,<5L>,<6L>,<7L>,<8L>,<9L>,...] followed by 999999990 more items");
+        Helper.testFailingMatcher(Stream.of(1, 2, 3), StreamMatchers.yieldsExactly(is(1)), "Stream of [<is <1>>]", "Stream of [<1>,<2>,<3>]");
+    }
+
+    @Test
+    void yieldsExactlyPrimitives_success() {
+        assertThat(IntStream.range(0, 3), StreamMatchers.yieldsExactlyInt(0, 1, 2));
+        assertThat(LongStream.range(0, 100_000).filter(i -> true), StreamMatchers.yieldsExactlyLong(LongStream.range(0, 100_000).toArray()));
+        assertThat(DoubleStream.of(Double.NaN, -0.0), StreamMatchers.yieldsExactlyDouble(Double.NaN, -0.0));
+        assertThat(IntStream.empty(), StreamMatchers.yieldsExactlyInt());
+    }
+
+    @Test
+    void yieldsExactlyInt_failure() {
+        Helper.testFailingMatcher(IntStream.of(1, 2, 4), StreamMatchers.yieldsExactlyInt(1, 2, 3), "Stream of [<1>,<2>,<3>]", "Stream of [<1>,<2>,<4>]");
+        Helper.testFailingMatcher(IntStream.of(1, 2).filter(i -> true), StreamMatchers.yieldsExactlyInt(1, 2, 3), "Stream of [<1>,<2>,<3>]", "Stream of [<1>,<2>]");
+    }
+
+    @Test
+    void yieldsExactlyDouble_failureComparesLikeEquals() {
+        Helper.testFailingMatcher(DoubleStream.of(0.0), StreamMatchers.yieldsExactlyDouble(-0.0), "Stream of [<-0.0>]", "Stream of [<0.0>]");
+    }
+
+    @Test
+    void equalTo_failureMessagesAcrossChunks() {
+        Matcher<LongStream> matcher = StreamMatchers.yieldsSameAs(LongStream.range(0, 5000).filter(i -> true), CapturePolicy.context(2, 1).countingRemainderUpTo(1500));
+        LongStream testData = LongStream.range(0, 5000).map(i -> i == 3000 ? -1 : i);
+        Helper.testFailingMatcher(testData, matcher,
+                "Stream of [...,<2998L>,<2999L>,<3000L>,<3001L>,...] followed by at least 1500 more items",
+                "Stream of [...,<2998L>,<2999L>,<-1L>,<3001L>,...] followed by at least 1500 more items");
+    }
+
+    @Test
+    void equalTo_failureMessagesOfDifferentLengthsAcrossChunks() {
+        Matcher<IntStream> matcher = StreamMatchers.yieldsSameAs(IntStream.range(0, 2049).filter(i -> true), CapturePolicy.context(2, 2));
+        Helper.testFailingMatcher(IntStream.range(0, 2047).filter(i -> true), matcher,
+                "Stream of [...,<2045>,<2046>,<2047>,<2048>]", "Stream of [...,<2045>,<2046>]");
+    }
+
+    @Test
+    void startsWithInt_failureDrainsExpectedItemsInChunks() {
+        int[] expected = IntStream.range(0, 3000).toArray();
+        expected[2999] = 0;
+        Helper.testFailingMatcher(IntStream.iterate(0, i -> i + 1), StreamMatchers.startsWithInt(expected), "<2997>,<2998>,<0>]", "<2997>,<2998>,<2999>]");
+    }
+
+    @Test
+    void equalTo_failureAgainstInfiniteStreamTerminates() {
+        Matcher<Stream<Integer>> matcher = StreamMatchers.yieldsSameAs(Stream.iterate(0, i -> i + 1), CapturePolicy.context(2, 1).countingRemainderUpTo(100));
+        Stream<Integer> testData = Stream.iterate(0, i -> i + 1).map(i -> i == 5 ? -5 : i);
+        Helper.testFailingMatcher(testData, matcher, "Stream of [...,<3>,<4>,<5>,<6>,...] followed by at least 100 more items", "Stream of [...,<3>,<4>,<-5>,<6>,...] followed by at least 100 more items");
+    }
+
+    @Test
+    void contains_failureAgainstInfiniteStreamTerminates() {
+        Helper.testFailingMatcher(Stream.generate(() -> "a"), StreamMatchers.yieldsExactly("a", "b"), "Stream of [\"a\",\"b\"]", "Stream of [\"a\",\"a\",\"a\"");
+    }
+
+    @Test
+    void equalToDoubleStream_comparesLikeDoubleEquals() {
+        assertThat(DoubleStream.of(1.0, Double.NaN), StreamMatchers.yieldsSameAs(DoubleStream.of(1.0, Double.NaN)));
+        assertThat(DoubleStream.of(0.0), not(StreamMatchers.yieldsSameAs(DoubleStream.of(-0.0))));
+    }
+
+    @Test
+    void equalToLongStream_failureMessages() {
+        Helper.testFailingMatcher(LongStream.of(1, 2, 4), StreamMatchers.yieldsSameAs(LongStream.of(1, 2, 3)), "Stream of [<1L>,<2L>,<3L>]", "Stream of [<1L>,<2L>,<4L>]");
+    }
+
+    @Test
+    void equalTo_successParallelStreams() {
+        assertThat(IntStream.range(0, 10_000_000).parallel(), StreamMatchers.yieldsSameAs(IntStream.range(0, 10_000_000).parallel()));
+        assertThat(Stream.of("a", "b", "c").parallel(), StreamMatchers.yieldsSameAs(Stream.of("a", "b", "c").parallel()));
+    }
+
+    @Test
+    void equalTo_failureParallelStreamsDescribeFirstDifference() {
+        Matcher<LongStream> matcher = StreamMatchers.yieldsSameAs(LongStream.range(0, 10_000_000).parallel());
+        LongStream testData = LongStream.range(0, 10_000_000).map(n -> n == 6_000_000 || n == 9_000_000 ? -1 : n).parallel();
+        Helper.testFailingMatcher(testData, matcher,
+                "Stream of [...,<5999990L>,<5999991L>,<5999992L>,<5999993L>,<5999994L>,<5999995L>,<5999996L>,<5999997L>,<5999998L>,<5999999L>,<6000000L>",
+                "<5999999L>,<-1L>,<6000001L>,<6000002L>,<6000003L>,<6000004L>,<6000005L>,<6000006L>,<6000007L>,<6000008L>,<6000009L>,<6000010L>,...] followed by at least 10000 more items");
+    }
+
+    @Test
+    void equalTo_failureParallelStreamsDescribedAsSequentialStreams() {
+        for (int size : new int[] {200_000, 15, 16}) {
+            CapturePolicy policy = CapturePolicy.context(2, 2).countingRemainderUpTo(size > 16 ? 10_000 : 7);
+            assertThat(mismatchOf(StreamMatchers.yieldsSameAs(IntStream.range(0, size).parallel(), policy), IntStream.range(0, size).map(n -> n == 5 ? -1 : n).parallel()),
+                    is(mismatchOf(StreamMatchers.yieldsSameAs(IntStream.range(0, size), policy), IntStream.range(0, size).map(n -> n == 5 ? -1 : n))));
+        }
+    }
+
+    @Test
+    void equalTo_failureParallelStreamsDescribeContextAcrossSplits() {
+        int partSize = 1 << 14;
+        for (int difference : new int[] {partSize, 3 * partSize, 3 * partSize + 4, 64 * partSize - 1}) {
+            assertThat(mismatchOf(StreamMatchers.yieldsSameAs(IntStream.range(0, 1 << 20).parallel()), IntStream.range(0, 1 << 20).map(n -> n == difference ? -1 : n).parallel()),
+                    is(mismatchOf(StreamMatchers.yieldsSameAs(IntStream.range(0, 1 << 20)), IntStream.range(0, 1 << 20).map(n -> n == difference ? -1 : n))));
+        }
+        Helper.testFailingMatcher(Stream.iterate(0, i -> i + 1).limit(1 << 16).map(i -> i == 2 * partSize ? -1 : i).collect(Collectors.toList()).parallelStream(),
+                StreamMatchers.yieldsSameAs(Stream.iterate(0, i -> i + 1).limit(1 << 16).collect(Collectors.toList()).parallelStream(), CapturePolicy.context(3, 1)),
+                "Stream of [...,<32765>,<32766>,<32767>,<32768>,<32769>,...]", "Stream of [...,<32765>,<32766>,<32767>,<-1>,<32769>,...]");
+    }
+
+    private static <T> String mismatchOf(Matcher<? super T> matcher, T item) {
+        assertThat(matcher.matches(item), is(false));
+        StringDescription mismatch = new StringDescription();
+        matcher.describeMismatch(item, mismatch);
+        return mismatch.toString();
+    }
+
+    @Test
+    void equalTo_failureParallelStreamsSplittingDifferently() {
+        Matcher<IntStream> matcher = StreamMatchers.yieldsSameAs(IntStream.range(0, 1_000_000).parallel());
+        IntStream testData = IntStream.concat(IntStream.range(0, 100), IntStream.range(100, 1_000_000).map(n -> n == 500_000 ? -1 : n)).parallel();
+        Helper.testFailingMatcher(testData, matcher, "<499999>,<500000>,<500001>", "<499999>,<-1>,<500001>");
+    }
+
+    @Test
+    void equalTo_successHugeStreamOnSmallStack() {
+        onSmallStack(() -> assertThat(Stream.iterate(0, i -> i + 1).limit(HUGE), StreamMatchers.yieldsSameAs(Stream.iterate(0, i -> i + 1).limit(HUGE))));
+    }
+
+    @Test
+    void equalToIntStream_successHugeStreamOnSmallStack() {
+        onSmallStack(() -> assertThat(IntStream.range(0, HUGE), StreamMatchers.yieldsSameAs(IntStream.range(0, HUGE))));
+    }
+
+    @Test
+    void equalToLongStream_successHugeStreamOnSmallStack() {
+        onSmallStack(() -> assertThat(LongStream.range(0, HUGE), StreamMatchers.yieldsSameAs(LongStream.range(0, HUGE))));
+    }
+
+    @Test
+    void equalToDoubleStream_successHugeStreamOnSmallStack() {
+        onSmallStack(() -> assertThat(DoubleStream.iterate(0, d -> d + 1).limit(HUGE), StreamMatchers.yieldsSameAs(DoubleStream.iterate(0, d -> d + 1).limit(HUGE))));
+    }
+
+    @Test
+    void contains_successLongStreamOfMatchersOnSmallStack() {
+        Matcher<Integer>[] expected = copiesOf(equalTo(1), 1_000_000);
+        onSmallStack(() -> assertThat(Stream.generate(() -> 1).limit(1_000_000), StreamMatchers.yieldsExactly(expected)));
+    }
+
     @Test
     void startsWithAll_success() {
         assertThat(Stream.generate(() -> 10), StreamMatchers.startsWithAll(equalTo(10),100));
@@ -377,6 +1040,34 @@ class StreamMatchersTest {
     }
 
 
+    private static final int HUGE = 100_000_000;
+
+    @SuppressWarnings("unchecked")
+    private static <T> Matcher<T>[] copiesOf(Matcher<T> matcher, int count) {
+        Matcher<T>[] copies = new Matcher[count];
+        Arrays.fill(copies, matcher);
+        return copies;
+    }
+
+    private static void onSmallStack(Runnable test) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "small-stack", 128 * 1024);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        assertThat(failure.get(), nullValue());
+    }
+
     private static void usesStreamMatcher(Stream<Integer> stream, Matcher<Stream<Integer>> matcher) {
         assertThat(stream, matcher);
     }
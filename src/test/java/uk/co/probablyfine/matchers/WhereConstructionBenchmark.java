@@ -0,0 +1,49 @@
+package uk.co.probablyfine.matchers;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Compares the cost of building and matching a passing {@link Java8Matchers#where} matcher, which resolves no
+ * descriptions, with also describing it, which resolves the descriptions of its method reference. Not run as a
+ * test; run its main method, preferably with a fixed heap and no other load.
+ */
+public class WhereConstructionBenchmark {
+
+    private static final int ITERATIONS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Java8MatchersTest.A entity = new Java8MatchersTest.A();
+        for (int round = 0; round < ROUNDS; round++) {
+            long passing = time(() -> {
+                Matcher<Java8MatchersTest.A> matcher = Java8Matchers.where(Java8MatchersTest.A::name, is("A"));
+                return matcher.matches(entity);
+            });
+            long described = time(() -> {
+                Matcher<Java8MatchersTest.A> matcher = Java8Matchers.where(Java8MatchersTest.A::name, is("A"));
+                return matcher.matches(entity) && StringDescription.toString(matcher).length() > 0;
+            });
+            System.out.printf("round %d: passing %d ns/op, described %d ns/op%n", round, passing, described);
+        }
+    }
+
+    private static long time(Operation operation) {
+        boolean all = true;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            all &= operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!all) {
+            throw new AssertionError("The matcher did not match");
+        }
+        return elapsed / ITERATIONS;
+    }
+
+    private interface Operation {
+        boolean run();
+    }
+}
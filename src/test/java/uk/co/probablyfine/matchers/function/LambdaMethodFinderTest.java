@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 class LambdaMethodFinderTest {
 
@@ -24,4 +25,18 @@ class LambdaMethodFinderTest {
         assertThat(((DescribableFunction<String, byte[]>) String::getBytes).getResultDescription(), is("getBytes (a byte[])"));
     }
 
+    @Test
+    void signatureIsResolvedOncePerLambdaClass() {
+        DescribableFunction<String, Integer> first = plus(1);
+        DescribableFunction<String, Integer> second = plus(2);
+        assertThat(second.getClass(), is(sameInstance(first.getClass())));
+        assertThat(LambdaSignature.of(second), is(sameInstance(LambdaSignature.of(first))));
+        assertThat(second.getResultDescription(), is("Integer"));
+        assertThat(((DescribablePredicate<String>) String::isEmpty).getResultDescription(), is("isEmpty"));
+    }
+
+    private static DescribableFunction<String, Integer> plus(int addend) {
+        return s -> s.length() + addend;
+    }
+
 }
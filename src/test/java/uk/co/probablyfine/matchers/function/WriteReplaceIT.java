@@ -0,0 +1,42 @@
+package uk.co.probablyfine.matchers.function;
+
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static uk.co.probablyfine.matchers.Java8Matchers.where;
+
+/**
+ * Runs against the packaged multi-release jar, in which the Java 9 version of {@link WriteReplace} is loaded on
+ * Java 9 and later.
+ */
+class WriteReplaceIT {
+
+    private static final int JAVA_9_CLASS_FILE = 53;
+
+    @Test
+    void loadsTheJava9VersionFromTheJar() throws IOException {
+        try (InputStream classFile = WriteReplace.class.getResourceAsStream("WriteReplace.class");
+             DataInputStream header = new DataInputStream(classFile)) {
+            header.readInt();
+            header.readUnsignedShort();
+            assertThat(header.readUnsignedShort(), is(greaterThanOrEqualTo(JAVA_9_CLASS_FILE)));
+        }
+    }
+
+    @Test
+    void resolvesDescriptionsOfLambdasAndMethodReferences() {
+        assertThat(((DescribableFunction<String, Integer>) String::length).getResultDescription(), is("length (an int)"));
+        assertThat(((DescribablePredicate<String>) s -> s.isEmpty()).getArgumentDescription(), is("String"));
+
+        StringDescription mismatch = new StringDescription();
+        where(String::length, is(3)).describeMismatch("ab", mismatch);
+        assertThat(mismatch.toString(), is("had the length (an int) <2>"));
+    }
+}
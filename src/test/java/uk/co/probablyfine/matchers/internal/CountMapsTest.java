@@ -0,0 +1,57 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+class CountMapsTest {
+
+    @Test
+    void longCountMap_countsManyKeys() {
+        LongCountMap counts = new LongCountMap();
+        IntStream.range(-50_000, 50_000).forEach(counts::add);
+        IntStream.range(-50_000, 50_000).forEach(counts::add);
+
+        assertThat(counts.remove(-50_000, 3), is(1L));
+        assertThat(counts.remove(49_999, 1), is(0L));
+        assertThat(counts.remove(50_000, 1), is(1L));
+
+        Map<Long, Long> remaining = new HashMap<>();
+        counts.forEach(remaining::put);
+        assertThat(remaining.size(), is(99_999));
+        assertThat(remaining, hasEntry(49_999L, 1L));
+    }
+
+    @Test
+    void longCountMap_mergesCounts() {
+        LongCountMap counts = new LongCountMap(1);
+        counts.add(Long.MIN_VALUE);
+        LongCountMap other = new LongCountMap();
+        other.add(Long.MIN_VALUE, 2);
+        other.add(0L);
+        counts.addAll(other);
+
+        Map<Long, Long> remaining = new HashMap<>();
+        counts.forEach(remaining::put);
+        assertThat(remaining, hasEntry(Long.MIN_VALUE, 3L));
+        assertThat(remaining, hasEntry(0L, 1L));
+    }
+
+    @Test
+    void countMap_omitsKeysWithoutRemainingCount() {
+        CountMap<String> counts = new CountMap<>();
+        counts.add(null);
+        assertThat(counts.remove(null, 1), is(0L));
+
+        Map<String, Long> remaining = new HashMap<>();
+        counts.forEach(remaining::put);
+        assertThat(remaining, is(anEmptyMap()));
+    }
+}
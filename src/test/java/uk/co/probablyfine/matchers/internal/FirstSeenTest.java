@@ -0,0 +1,48 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class FirstSeenTest {
+
+    @Test
+    void longFirstSeen_indexesDenseValuesDirectly() {
+        LongFirstSeen firstSeen = new LongFirstSeen();
+        for (int value = 0; value < 100_000; value++) {
+            assertThat(firstSeen.add(100_000 - value), is(-1));
+        }
+        assertThat(firstSeen.isDirect(), is(true));
+        assertThat(firstSeen.add(100_000), is(0));
+        assertThat(firstSeen.add(1), is(99_999));
+    }
+
+    @Test
+    void longFirstSeen_returnsToHashingWhenValuesBecomeSparse() {
+        LongFirstSeen firstSeen = new LongFirstSeen();
+        for (int value = 0; value < 1_000; value++) {
+            firstSeen.add(value);
+        }
+        assertThat(firstSeen.isDirect(), is(true));
+        assertThat(firstSeen.add(Integer.MIN_VALUE), is(-1));
+        assertThat(firstSeen.add(Integer.MAX_VALUE), is(-1));
+        assertThat(firstSeen.isDirect(), is(false));
+        assertThat(firstSeen.add(999), is(999));
+        assertThat(firstSeen.add(Integer.MAX_VALUE), is(1_001));
+    }
+
+    @Test
+    void longFirstSeen_handlesExtremeValues() {
+        LongFirstSeen firstSeen = new LongFirstSeen();
+        for (long value = Long.MIN_VALUE; value < Long.MIN_VALUE + 1_000; value++) {
+            firstSeen.add(value);
+        }
+        for (long value = Long.MAX_VALUE; value > Long.MAX_VALUE - 1_000; value--) {
+            firstSeen.add(value);
+        }
+        assertThat(firstSeen.size(), is(2_000));
+        assertThat(firstSeen.add(Long.MIN_VALUE + 10), is(10));
+        assertThat(firstSeen.add(Long.MAX_VALUE - 10), is(1_010));
+    }
+}
@@ -0,0 +1,110 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.hamcrest.Description;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrimitiveBuffersTest {
+
+    @Test
+    void intBuffer_growsToHoldAllItems() {
+        IntBuffer buffer = new IntBuffer(0);
+        IntStream.range(0, 1_000).forEach(buffer::add);
+        assertThat(buffer.size(), is(1_000));
+        assertThat(buffer.toArray(), is(IntStream.range(0, 1_000).toArray()));
+    }
+
+    @Test
+    void buffers_describeTheirItemsLikeHamcrest() {
+        LongBuffer longs = new LongBuffer();
+        longs.add(1L);
+        longs.add(2L);
+        DoubleBuffer doubles = new DoubleBuffer();
+        doubles.add(0.5);
+
+        assertThat(describe(longs::appendValueList), is("[<1L>,<2L>]"));
+        assertThat(describe(doubles::appendValueList), is("[<0.5>]"));
+        assertThat(describe(new IntBuffer()::appendValueList), is("[]"));
+    }
+
+    @Test
+    void ringBuffers_addAllRetainsOnlyTheMostRecentItems() {
+        IntRingBuffer ring = new IntRingBuffer(3);
+        ring.add(-1);
+        ring.addAll(new int[] {0, 1, 2, 3, 4, 5}, 1, 6);
+        assertThat(ring.toArray(), is(new int[] {3, 4, 5}));
+        assertThat(ring.evicted(), is(3L));
+
+        DoubleRingBuffer partial = new DoubleRingBuffer(3);
+        partial.addAll(new double[] {0, 1}, 0, 2);
+        partial.addAll(new double[] {2, 3}, 0, 2);
+        assertThat(partial.toArray(), is(new double[] {1, 2, 3}));
+        assertThat(partial.evicted(), is(1L));
+
+        LongRingBuffer empty = new LongRingBuffer(0);
+        empty.addAll(new long[] {1, 2}, 0, 2);
+        assertThat(empty.evicted(), is(2L));
+    }
+
+    @Test
+    void ringBuffers_getRetainedItemsOldestFirst() {
+        LongRingBuffer ring = new LongRingBuffer(3);
+        LongStream.range(0, 5).forEach(ring::add);
+        assertThat(ring.get(0), is(2L));
+        assertThat(ring.get(2), is(4L));
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.get(3));
+
+        RingBuffer<String> partial = new RingBuffer<>(3);
+        partial.add("a");
+        assertThat(partial.get(0), is("a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> partial.get(1));
+    }
+
+    @Test
+    void positionDeque_removesFromBothEnds() {
+        PositionDeque deque = new PositionDeque(2);
+        deque.addLast(1);
+        deque.addLast(2);
+        deque.removeFirst();
+        deque.addLast(3);
+        assertThat(deque.first(), is(2L));
+        assertThat(deque.last(), is(3L));
+        deque.removeLast();
+        deque.removeLast();
+        assertThat(deque.isEmpty(), is(true));
+    }
+
+    @Test
+    void ringBuffer_retainsOnlyTheMostRecentItems() {
+        IntRingBuffer ring = new IntRingBuffer(3);
+        IntStream.range(0, 10).forEach(ring::add);
+        assertThat(ring.toArray(), is(new int[] {7, 8, 9}));
+        assertThat(ring.evicted(), is(7L));
+        assertThat(describe(ring::appendValueList), is("[<7>,<8>,<9>]"));
+    }
+
+    @Test
+    void ringBuffer_withZeroCapacityOnlyCounts() {
+        LongRingBuffer ring = new LongRingBuffer(0);
+        ring.add(1L);
+        assertThat(ring.size(), is(0));
+        assertThat(ring.evicted(), is(1L));
+    }
+
+    private interface ValueListAppender {
+        void appendValueList(Description description, String start, String separator, String end);
+    }
+
+    private static String describe(ValueListAppender appender) {
+        StringDescription description = new StringDescription();
+        appender.appendValueList(description, "[", ",", "]");
+        return description.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package uk.co.probablyfine.matchers.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+class QuantileSketchTest {
+
+    @Test
+    void estimatesQuantilesWithinRankError() {
+        int n = 1_000_000;
+        QuantileSketch sketch = new QuantileSketch(256);
+        QuantileSketch other = new QuantileSketch(256);
+        for (long i = 0; i < n; i++) {
+            (i % 3 == 0 ? other : sketch).add((i * 7_919) % n);
+        }
+        sketch.merge(other);
+        assertThat(sketch.isExact(), is(false));
+        assertThat(sketch.count(), is((long) n));
+
+        double maxRankError = sketch.rankError() * n;
+        for (double q : new double[] {0.0, 0.01, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exactRank = Math.max(1, (long) Math.ceil(q * n));
+            long estimatedRank = (long) sketch.quantile(q) + 1;
+            assertThat((double) Math.abs(estimatedRank - exactRank), lessThanOrEqualTo(maxRankError));
+        }
+    }
+
+    @Test
+    void isExactUpToCapacity() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < QuantileSketch.DEFAULT_CAPACITY; i++) {
+            sketch.add(i);
+        }
+        assertThat(sketch.isExact(), is(true));
+        assertThat(sketch.quantile(0.5), is(4095.0));
+        assertThat(sketch.quantile(1.0), is(8191.0));
+
+        sketch.add(QuantileSketch.DEFAULT_CAPACITY);
+        assertThat(sketch.isExact(), is(false));
+    }
+
+    @Test
+    void mergedSketchesKeepTheirItems() {
+        QuantileSketch first = new QuantileSketch(4);
+        QuantileSketch second = new QuantileSketch(4);
+        first.add(1);
+        first.add(2);
+        second.add(3);
+        first.merge(second);
+        assertThat(first.count(), is(3L));
+        assertThat(first.isExact(), is(true));
+        assertThat(first.quantile(1.0), is(3.0));
+        assertThat(first.quantile(0.0), is(1.0));
+    }
+}